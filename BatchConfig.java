@@ -0,0 +1,86 @@
+import java.io.*;
+import java.time.LocalTime;
+import java.util.*;
+
+/**
+ * Settings for {@code java TheVizzard --batch}: where reports go, which state
+ * maps to draw and how many threads to use. Values come from an optional
+ * properties file, then from command-line flags, which win.
+ *
+ * <pre>
+ *   java -Djava.awt.headless=true TheVizzard --batch [file.properties]
+ *        [--out DIR] [--names A,B] [--states all|TX,CA,...] [--cutoff HH:MM|now]
+ *        [--threads N] [--size WxH]
+ * </pre>
+ *
+ * Property keys are the flag names without dashes (out, names, states,
+ * cutoff, threads, size).
+ */
+public class BatchConfig {
+
+    File outDir = new File("outputs/batch");
+    String candidateA = "", candidateB = "";
+    /** Upper-case state IDs for per-state maps and summaries; null means every state. */
+    List<String> states;
+    /** Partial-results cutoff in seconds after midnight, or -1 for none. */
+    int cutoff = -1;
+    int threads = Runtime.getRuntime().availableProcessors();
+    int mapWidth = 900, mapHeight = 600;
+
+    /** Parses {@code args} as they follow "--batch". */
+    static BatchConfig parse(String[] args) throws IOException {
+        BatchConfig config = new BatchConfig();
+        Properties props = new Properties();
+        int i = 0;
+        if (i < args.length && !args[i].startsWith("--")) {
+            try (Reader r = new InputStreamReader(new FileInputStream(args[i++]), "UTF-8")) {
+                props.load(r);
+            }
+        }
+        for (; i < args.length; i++) {
+            String flag = args[i];
+            if (!flag.startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Expected --flag value, got " + flag);
+            }
+            props.setProperty(flag.substring(2), args[++i]);
+        }
+
+        for (String key : props.stringPropertyNames()) {
+            String value = props.getProperty(key).trim();
+            switch (key) {
+                case "out":
+                    config.outDir = new File(value);
+                    break;
+                case "names": {
+                    String[] names = value.split(",", -1);
+                    config.candidateA = names[0].trim();
+                    config.candidateB = names.length > 1 ? names[1].trim() : "";
+                    break;
+                }
+                case "states":
+                    if (!value.equalsIgnoreCase("all")) {
+                        config.states = new ArrayList<>();
+                        for (String s : value.split(",")) if (!s.isBlank()) config.states.add(s.trim().toUpperCase());
+                    }
+                    break;
+                case "cutoff":
+                    config.cutoff = value.equalsIgnoreCase("now")
+                            ? LocalTime.now().toSecondOfDay()
+                            : TheVizzard.parseClock(value);
+                    break;
+                case "threads":
+                    config.threads = Math.max(1, Integer.parseInt(value));
+                    break;
+                case "size": {
+                    String[] wh = value.toLowerCase().split("x");
+                    config.mapWidth = Integer.parseInt(wh[0].trim());
+                    config.mapHeight = Integer.parseInt(wh[1].trim());
+                    break;
+                }
+                default:
+                    throw new IllegalArgumentException("Unknown batch setting: " + key);
+            }
+        }
+        return config;
+    }
+}
@@ -0,0 +1,62 @@
+import java.util.*;
+
+/**
+ * Finds candidate vote columns in a header row.
+ *
+ * A column is a candidate when its header reads "&lt;name&gt; Votes",
+ * "&lt;name&gt;_Votes" or "Sum of &lt;name&gt; Votes" (pivot-table style);
+ * totals such as "Votes", "Sum of Votes" or "Elect Votes" are not. Candidates
+ * keep the header's left-to-right order.
+ */
+public class CandidateColumns {
+
+    /** "&lt;x&gt; Votes" headers that are totals or electoral counts, not candidates. */
+    private static final Set<String> NOT_CANDIDATES = new HashSet<>(Arrays.asList(
+            "total", "sum of", "elect", "electoral", "popular", "cast"));
+
+    public final int[] columns;
+    public final String[] names;
+
+    private CandidateColumns(int[] columns, String[] names) {
+        this.columns = columns;
+        this.names = names;
+    }
+
+    public int size() { return columns.length; }
+
+    /** Scans header cells (nulls allowed) for candidate columns. */
+    public static CandidateColumns fromHeader(List<String> headers) {
+        List<Integer> cols = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < headers.size(); i++) {
+            String name = candidateName(headers.get(i));
+            if (name != null) {
+                cols.add(i);
+                names.add(name);
+            }
+        }
+        int[] colArr = new int[cols.size()];
+        for (int i = 0; i < colArr.length; i++) colArr[i] = cols.get(i);
+        return new CandidateColumns(colArr, names.toArray(new String[0]));
+    }
+
+    /** Fixed layout used when a file has no recognizable header. */
+    public static CandidateColumns fixed(int[] columns, String[] names) {
+        return new CandidateColumns(columns.clone(), names.clone());
+    }
+
+    /** Candidate name for a header cell, or null if the cell is not a candidate column. */
+    static String candidateName(String header) {
+        if (header == null) return null;
+        String h = header.trim();
+        String lower = h.toLowerCase();
+        if (lower.startsWith("sum of ")) {
+            h = h.substring(7).trim();
+            lower = h.toLowerCase();
+        }
+        if (!(lower.endsWith(" votes") || lower.endsWith("_votes"))) return null;
+        String name = h.substring(0, h.length() - 6).trim();
+        if (name.isEmpty() || NOT_CANDIDATES.contains(name.toLowerCase())) return null;
+        return name;
+    }
+}
@@ -0,0 +1,194 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Bottom-up state and national totals from county (or precinct) rows.
+ *
+ * Rows are split into contiguous ranges and reduced with fork/join. Each leaf
+ * task sums its range into its own primitive accumulator, indexed
+ * [candidate][state ordinal], and parents merge their children's arrays, so
+ * there is no shared map and no locking. Every state's rows are folded into
+ * that state's slot, wherever in the file they sit. {@link #sequential}
+ * runs the same loop on one thread as the baseline.
+ */
+public class CountyAggregator {
+
+    /** Rows per leaf task; below this, splitting costs more than it saves. */
+    static final int LEAF_ROWS = 16_384;
+
+    private static final Metrics.Timer SEQUENTIAL = Metrics.timer("aggregate.counties.sequential");
+    private static final Metrics.Timer PARALLEL = Metrics.timer("aggregate.counties.forkjoin");
+
+    /** Per-state sums of county rows, indexed by state ordinal. */
+    public static class Totals {
+        public final long[][] votes;      // [candidate][state]
+        public final long[] population;   // [state]
+        public final int[] counties;      // [state] rows folded in
+        public final int states;
+
+        Totals(int candidates, int states) {
+            this.votes = new long[candidates][states];
+            this.population = new long[states];
+            this.counties = new int[states];
+            this.states = states;
+        }
+
+        void add(Totals o) {
+            for (int c = 0; c < votes.length; c++) {
+                long[] a = votes[c], b = o.votes[c];
+                for (int s = 0; s < states; s++) a[s] += b[s];
+            }
+            for (int s = 0; s < states; s++) {
+                population[s] += o.population[s];
+                counties[s] += o.counties[s];
+            }
+        }
+
+        /** National votes per candidate. */
+        public long[] national() {
+            return TallyEngine.popularTotals(votes, states);
+        }
+
+        /** Electoral votes per candidate, awarding each state's EV from {@code store} to its county-built leader. */
+        public int[] electoralTotals(VoteStore store) {
+            int[] ev = new int[states];
+            for (int s = 0; s < states; s++) ev[s] = store.electoral(s);
+            return TallyEngine.electoralTotals(TallyEngine.tally(votes, states), ev);
+        }
+    }
+
+    // ----------------------------- REDUCTION -----------------------------
+    /** Single-threaded baseline. */
+    public static Totals sequential(CountyData data) {
+        long start = System.nanoTime();
+        Totals t = reduce(data);
+        SEQUENTIAL.since(start);
+        return t;
+    }
+
+    private static Totals reduce(CountyData data) {
+        Totals t = new Totals(data.candidates(), data.states.size());
+        accumulate(data, 0, data.size(), t);
+        return t;
+    }
+
+    /** Fork/join reduction on the common pool. */
+    public static Totals parallel(CountyData data) {
+        return parallel(data, ForkJoinPool.commonPool());
+    }
+
+    public static Totals parallel(CountyData data, ForkJoinPool pool) {
+        // Nothing to split, or nobody to split it with: skip the hand-off to the pool
+        long start = System.nanoTime();
+        Totals t = data.size() <= LEAF_ROWS || pool.getParallelism() == 1
+                ? reduce(data)
+                : pool.invoke(new Reduce(data, data.states.size(), 0, data.size()));
+        PARALLEL.since(start);
+        return t;
+    }
+
+    private static void accumulate(CountyData data, int from, int to, Totals t) {
+        int[] state = data.state;
+        // Candidate-major: one tight loop per column
+        for (int c = 0; c < t.votes.length; c++) {
+            long[] col = data.votes[c], acc = t.votes[c];
+            for (int j = from; j < to; j++) acc[state[j]] += col[j];
+        }
+        long[] pop = data.population;
+        for (int j = from; j < to; j++) {
+            t.population[state[j]] += pop[j];
+            t.counties[state[j]]++;
+        }
+    }
+
+    private static final class Reduce extends RecursiveTask<Totals> {
+        private static final long serialVersionUID = 1L;
+
+        private final CountyData data;
+        private final int states, from, to;
+
+        Reduce(CountyData data, int states, int from, int to) {
+            this.data = data;
+            this.states = states;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Totals compute() {
+            if (to - from <= LEAF_ROWS) {
+                Totals t = new Totals(data.candidates(), states);
+                accumulate(data, from, to, t);
+                return t;
+            }
+            int mid = (from + to) >>> 1;
+            Reduce left = new Reduce(data, states, from, mid);
+            left.fork();
+            Totals right = new Reduce(data, states, mid, to).compute();
+            Totals merged = left.join();
+            merged.add(right);
+            return merged;
+        }
+    }
+
+    // ----------------------------- CROSS-CHECK -----------------------------
+    /**
+     * Compares county-built totals with the pre-aggregated state rows in
+     * {@code store} (Vote-Results.xlsx), matching candidates by name. Returns
+     * report lines: states that agree exactly, with the county rows rejected at
+     * load next to that count, the largest per-state gap and
+     * the national gap per candidate.
+     */
+    public static List<String> crossCheck(Totals t, CountyData data, VoteStore store) {
+        List<String> lines = new ArrayList<>();
+        int k = data.candidates();
+        int[] column = new int[k];
+        for (int c = 0; c < k; c++) {
+            column[c] = -1;
+            for (int sc = 0; sc < store.candidates(); sc++) {
+                if (store.candidateName(sc).equalsIgnoreCase(data.candidateName(c))) column[c] = sc;
+            }
+            if (column[c] < 0) lines.add("No Vote-Results column for county candidate " + data.candidateName(c));
+        }
+
+        int compared = 0, exact = 0, worstState = -1, worstCand = -1;
+        long worstGap = 0;
+        long[] nationalStore = new long[k];
+        for (int st : store.reportedOrdinals()) {
+            compared++;
+            boolean same = true;
+            for (int c = 0; c < k; c++) {
+                if (column[c] < 0) continue;
+                long expected = store.votes(column[c], st);
+                long built = st < t.states ? t.votes[c][st] : 0;
+                nationalStore[c] += expected;
+                long gap = built - expected;
+                if (gap != 0) same = false;
+                if (Math.abs(gap) > Math.abs(worstGap)) {
+                    worstGap = gap;
+                    worstState = st;
+                    worstCand = c;
+                }
+            }
+            if (same) exact++;
+        }
+
+        // Rows the loader rejected are missing from every county total; without any, gaps are differences between the files
+        lines.add(String.format("%d/%d states match Vote-Results.xlsx exactly (%s)", exact, compared,
+                data.rejected == 0 ? "no county rows rejected at load"
+                        : String.format("%,d county row%s rejected at load, not in the county totals",
+                                data.rejected, data.rejected == 1 ? "" : "s")));
+        if (worstState >= 0) {
+            long expected = store.votes(column[worstCand], worstState);
+            lines.add(String.format("Largest gap: %s %s %+,d (%+.2f%%)", store.id(worstState),
+                    data.candidateName(worstCand), worstGap, expected == 0 ? 0.0 : 100.0 * worstGap / expected));
+        }
+        long[] national = t.national();
+        for (int c = 0; c < k; c++) {
+            if (column[c] < 0) continue;
+            lines.add(String.format("National %s: counties %,d vs states %,d (%+,d)", data.candidateName(c),
+                    national[c], nationalStore[c], national[c] - nationalStore[c]));
+        }
+        return lines;
+    }
+}
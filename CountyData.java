@@ -0,0 +1,290 @@
+import java.io.*;
+import java.util.*;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Column-oriented county table loaded from Voting-Counties.csv.
+ *
+ * One primitive array per column, indexed by county row. States are stored as
+ * ordinals from a shared {@link IdDictionary} (normally the one behind
+ * TheVizzard's {@link VoteStore}), so county and state data line up without
+ * string lookups. Votes form a candidate-by-county matrix in header order.
+ */
+public class CountyData {
+
+    /** Marker in {@link #returnTime} for counties without a usable return time. */
+    public static final long NO_TIME = Long.MIN_VALUE;
+
+    final IdDictionary states;
+    final String[] candidates;
+    final int size;
+
+    final String[] names;          // "county"
+    final int[] fips;              // "county_fips", -1 if missing
+    final int[] state;             // ordinal of "state_id" in states
+    final double[] lat, lon;
+    final long[][] votes;          // [candidate][county]
+    final long[] population;
+    final double[] pctStatePop;    // "pct_st_pop", in percent
+    final double[] factor;         // "factor", in percent
+    final double[] voteCast;       // "VoteCast", share of population that voted
+    final long[] returnTime;       // seconds since 1970-01-01 (local election time) or NO_TIME
+
+    /** Rows dropped because lat/lng, state or a candidate count did not parse. */
+    final int rejected;
+
+    /** Wraps already-built columns (each {@code size} long); used by the loader and {@link DataSnapshot}. */
+    CountyData(IdDictionary states, String[] candidates, String[] names, int[] fips, int[] state,
+               double[] lat, double[] lon, long[][] votes, long[] population, double[] pctStatePop,
+               double[] factor, double[] voteCast, long[] returnTime, int rejected) {
+        this.states = states;
+        this.candidates = candidates;
+        this.size = names.length;
+        this.names = names;
+        this.fips = fips;
+        this.state = state;
+        this.lat = lat;
+        this.lon = lon;
+        this.votes = votes;
+        this.population = population;
+        this.pctStatePop = pctStatePop;
+        this.factor = factor;
+        this.voteCast = voteCast;
+        this.returnTime = returnTime;
+        this.rejected = rejected;
+    }
+
+    public int size()                 { return size; }
+    public int candidates()           { return candidates.length; }
+    public String candidateName(int c) { return candidates[c]; }
+    public String stateId(int county) { return states.id(state[county]); }
+
+    /** Identity of a row across re-exports of the file: its FIPS code, or its state and name if it has none. */
+    long key(int county) { return rowKey(fips[county], state[county], names[county]); }
+
+    static long rowKey(int fips, int state, String name) {
+        if (fips >= 0) return fips;
+        return ((long) (state + 1) << 32) | (name.hashCode() & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Copy with new votes ({@code [candidate][i]}) and return times for
+     * {@code rows[i]}. Only the vote and return-time columns are copied; the
+     * rest are shared with this table, so both stay valid side by side.
+     */
+    CountyData withResults(int[] rows, long[][] rowVotes, long[] rowTimes) {
+        long[][] v = new long[votes.length][];
+        for (int c = 0; c < v.length; c++) {
+            v[c] = votes[c].clone();
+            for (int i = 0; i < rows.length; i++) v[c][rows[i]] = rowVotes[c][i];
+        }
+        long[] t = returnTime.clone();
+        for (int i = 0; i < rows.length; i++) t[rows[i]] = rowTimes[i];
+        return new CountyData(states, candidates, names, fips, state, lat, lon, v,
+                population, pctStatePop, factor, voteCast, t, rejected);
+    }
+
+    /** Copy with another names column, holding the same names (used to share strings, see {@link ElectionSet}). */
+    CountyData withNames(String[] names) {
+        return new CountyData(states, candidates, names, fips, state, lat, lon, votes,
+                population, pctStatePop, factor, voteCast, returnTime, rejected);
+    }
+
+    /**
+     * This table with its identity and position columns (names, FIPS, state,
+     * lat/lng) swapped for {@code base}'s when they hold the same values, so
+     * several elections over the same counties keep one copy of them (see
+     * {@link ElectionSet}). Returns this table unchanged if any differ.
+     */
+    CountyData sharingGeography(CountyData base) {
+        if (base == this || base.states != states || base.size != size) return this;
+        if (!Arrays.equals(fips, base.fips) || !Arrays.equals(state, base.state) || !Arrays.equals(lat, base.lat)
+                || !Arrays.equals(lon, base.lon) || !Arrays.equals(names, base.names)) return this;
+        return new CountyData(states, candidates, base.names, base.fips, base.state, base.lat, base.lon, votes,
+                population, pctStatePop, factor, voteCast, returnTime, rejected);
+    }
+
+    // ----------------------------- LOADER -----------------------------
+    /** Loads the county CSV, interning state IDs into {@code states}. */
+    public static CountyData load(File file, IdDictionary states) throws IOException {
+        return load(file, states, fraction -> { });
+    }
+
+    /** As {@link #load(File, IdDictionary)}, reporting the fraction of the file parsed so far (0..1). */
+    public static CountyData load(File file, IdDictionary states, DoubleConsumer progress) throws IOException {
+        if (!file.exists()) throw new FileNotFoundException(file.getPath());
+
+        long start = System.nanoTime();
+        try (CsvTokenizer csv = new CsvTokenizer(file)) {
+            if (!csv.next()) return new Builder(states, new String[0]).build();
+
+            Columns col = Columns.read(csv, file);
+            CandidateColumns cand = col.candidates;
+
+            Builder b = new Builder(states, cand.names);
+            int[] rejects = new int[REJECT_REASONS.length];
+            while (csv.next()) {
+                if ((csv.recordNumber() & 1023) == 0) progress.accept((double) csv.bytesRead() / csv.fileSize());
+                int reason = 0;
+                try {
+                    double lat = csv.parseDouble(col.lat);
+                    reason = 1;
+                    double lon = csv.parseDouble(col.lon);
+                    reason = 2;
+                    if (csv.isBlank(col.state)) throw new NumberFormatException("no state");
+                    reason = 3;
+                    int row = b.add();
+                    for (int c = 0; c < cand.size(); c++) b.votes[c][row] = csv.parseLong(cand.columns[c]);
+                    reason = 4;
+                    b.lat[row] = lat;
+                    b.lon[row] = lon;
+                    b.state[row] = states.intern(csv.string(col.state).toUpperCase());
+                    b.names[row] = col.name >= 0 ? csv.string(col.name) : "";
+                    b.fips[row] = (int) csv.parseLong(col.fips, -1);
+                    b.population[row] = csv.parseLong(col.population, 0);
+                    b.pctStatePop[row] = csv.parseDouble(col.pctStatePop, 0.0);
+                    b.factor[row] = csv.parseDouble(col.factor, 0.0);
+                    b.voteCast[row] = csv.parseDouble(col.voteCast, 0.0);
+                    b.returnTime[row] = col.returnTime(csv);
+                    b.n++;
+                } catch (NumberFormatException e) {
+                    b.rejected++;
+                    rejects[reason]++;
+                }
+            }
+            progress.accept(1.0);
+            for (int r = 0; r < rejects.length; r++) Metrics.rejected("counties", REJECT_REASONS[r], rejects[r]);
+            Metrics.loaded("counties", b.n, csv.fileSize(), System.nanoTime() - start);
+            return b.build();
+        }
+    }
+
+    /** Why the loader dropped a row: the first field that would not parse. */
+    private static final String[] REJECT_REASONS = { "bad-lat", "bad-lon", "blank-state", "bad-votes", "bad-field" };
+
+    /**
+     * Column positions resolved from a header row. Shared by the loader and
+     * {@link DeltaIngest}, which re-reads changed rows of the same file.
+     */
+    static final class Columns {
+        final String[] headers;
+        final int lat, lon, state, name, fips, population, pctStatePop, factor, voteCast, date, time;
+        final CandidateColumns candidates;
+
+        private Columns(String[] headers, File file) throws IOException {
+            this.headers = headers;
+            Map<String, Integer> idx = new HashMap<>();
+            for (int i = 0; i < headers.length; i++) idx.putIfAbsent(headers[i].toLowerCase(), i);
+
+            // Support multiple possible header styles
+            lat         = idx.getOrDefault("lat", idx.getOrDefault("latitude", -1));
+            lon         = idx.getOrDefault("lng", idx.getOrDefault("longitude", -1));
+            state       = idx.getOrDefault("state_id", idx.getOrDefault("state", -1));
+            name        = idx.getOrDefault("county", -1);
+            fips        = idx.getOrDefault("county_fips", idx.getOrDefault("fips", -1));
+            population  = idx.getOrDefault("population", -1);
+            pctStatePop = idx.getOrDefault("pct_st_pop", -1);
+            factor      = idx.getOrDefault("factor", -1);
+            voteCast    = idx.getOrDefault("votecast", -1);
+            date        = idx.getOrDefault("return date", -1);
+            time        = idx.getOrDefault("return time", -1);
+            candidates  = CandidateColumns.fromHeader(Arrays.asList(headers));
+
+            if (lat < 0 || lon < 0 || state < 0 || candidates.size() == 0) {
+                throw new IOException("Header mismatch in " + file + ": expected lat,lng,state_id and <candidate> Votes columns, found "
+                        + Arrays.toString(headers));
+            }
+        }
+
+        /** Columns named by the tokenizer's current record. */
+        static Columns read(CsvTokenizer csv, File file) throws IOException {
+            String[] headers = new String[csv.fieldCount()];
+            for (int i = 0; i < headers.length; i++) headers[i] = csv.string(i);
+            return new Columns(headers, file);
+        }
+
+        /** True if {@code other} came from an identical header row. */
+        boolean sameLayout(Columns other) {
+            return other != null && Arrays.equals(headers, other.headers);
+        }
+
+        /** Row key of the current record, as {@link CountyData#key(int)} gives it for a loaded row. */
+        long key(CsvTokenizer csv, IdDictionary states) {
+            int f = (int) csv.parseLong(fips, -1);
+            if (f >= 0) return rowKey(f, -1, null);
+            return rowKey(-1, states.ordinal(csv.string(state).toUpperCase()), name >= 0 ? csv.string(name) : "");
+        }
+
+        /** True if the loader keeps the current record (lat/lng, state and every candidate count parse). */
+        boolean accepts(CsvTokenizer csv) {
+            try {
+                csv.parseDouble(lat);
+                csv.parseDouble(lon);
+                for (int col : candidates.columns) csv.parseLong(col);
+                return !csv.isBlank(state);
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+
+        /** "Return Date" + "Return Time" as local seconds since the epoch, or NO_TIME. */
+        long returnTime(CsvTokenizer csv) {
+            if (time < 0 || csv.isBlank(time)) return NO_TIME;
+            try {
+                long day = (date >= 0 && !csv.isBlank(date)) ? csv.parseDate(date) : 0;
+                return day * 86_400L + csv.parseClock(time);
+            } catch (NumberFormatException e) {
+                return NO_TIME;
+            }
+        }
+    }
+
+    /** Growable columns used while loading; a row only counts once {@code n} is bumped. */
+    private static class Builder {
+        final IdDictionary states;
+        final String[] candidates;
+        int n, rejected;
+
+        String[] names = new String[1024];
+        int[] fips = new int[1024], state = new int[1024];
+        double[] lat = new double[1024], lon = new double[1024];
+        long[][] votes;
+        long[] population = new long[1024];
+        double[] pctStatePop = new double[1024], factor = new double[1024], voteCast = new double[1024];
+        long[] returnTime = new long[1024];
+
+        Builder(IdDictionary states, String[] candidates) {
+            this.states = states;
+            this.candidates = candidates;
+            this.votes = new long[candidates.length][1024];
+        }
+
+        /** Makes room for one more row and returns its index. */
+        int add() {
+            if (n == lat.length) {
+                int cap = n * 2;
+                names = Arrays.copyOf(names, cap);
+                fips = Arrays.copyOf(fips, cap);
+                state = Arrays.copyOf(state, cap);
+                lat = Arrays.copyOf(lat, cap);
+                lon = Arrays.copyOf(lon, cap);
+                for (int c = 0; c < votes.length; c++) votes[c] = Arrays.copyOf(votes[c], cap);
+                population = Arrays.copyOf(population, cap);
+                pctStatePop = Arrays.copyOf(pctStatePop, cap);
+                factor = Arrays.copyOf(factor, cap);
+                voteCast = Arrays.copyOf(voteCast, cap);
+                returnTime = Arrays.copyOf(returnTime, cap);
+            }
+            return n;
+        }
+
+        CountyData build() {
+            long[][] v = new long[votes.length][];
+            for (int c = 0; c < v.length; c++) v[c] = Arrays.copyOf(votes[c], n);
+            return new CountyData(states, candidates, Arrays.copyOf(names, n), Arrays.copyOf(fips, n),
+                    Arrays.copyOf(state, n), Arrays.copyOf(lat, n), Arrays.copyOf(lon, n), v,
+                    Arrays.copyOf(population, n), Arrays.copyOf(pctStatePop, n), Arrays.copyOf(factor, n),
+                    Arrays.copyOf(voteCast, n), Arrays.copyOf(returnTime, n), rejected);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Process-wide cache of loaded {@link CountyData}.
+ *
+ * Each county CSV is parsed at most once per modification: the first
+ * {@link #load(String)} starts the parse on a background loader thread and
+ * every later caller, map panels and TheVizzard alike, gets the same future
+ * until the file's mtime or size changes. All loads intern state IDs into one
+ * shared {@link IdDictionary}, so state ordinals agree across datasets and with
+ * any {@link VoteStore} built on {@link #states()}.
+ *
+ * While a count is running, {@link DeltaIngest} publishes new results for a
+ * path through {@link #update}; open map windows listen for those and redraw
+ * only the counties that changed.
+ *
+ * The projected county positions are cached here too ({@link #projected}),
+ * so every map panel and batch render over the same counties and projection
+ * shares one {@link ProjectedCounties}.
+ */
+public final class CountyDataset {
+
+    public static final String DEFAULT_PATH = "data/Voting-Counties.csv";
+
+    private static final IdDictionary STATES = new IdDictionary();
+
+    private static final ExecutorService LOADER = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "county-loader");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /** One cached load, valid while the file still has this mtime and length. */
+    private static final class Entry {
+        final long modified, length;
+        final CompletableFuture<CountyData> future = new CompletableFuture<>();
+        volatile double progress;
+
+        Entry(long modified, long length) {
+            this.modified = modified;
+            this.length = length;
+        }
+    }
+
+    private static final Map<String, Entry> CACHE = new HashMap<>();
+
+    /** Told when the counties for a path are replaced by {@link #update}. */
+    public interface UpdateListener {
+        /**
+         * {@code after} replaces {@code before} for {@code path} (absolute).
+         * {@code rows} lists the rows whose results changed, or is null if the
+         * file was reloaded from scratch. {@code detectedNanos} is the
+         * {@link System#nanoTime()} at which the file change was noticed.
+         */
+        void countiesUpdated(String path, CountyData before, CountyData after, int[] rows, long detectedNanos);
+    }
+
+    private static final List<UpdateListener> LISTENERS = new CopyOnWriteArrayList<>();
+
+    /** Projections kept, least recently used dropped first (datasets x projections in use). */
+    static final int PROJECTIONS = 4;
+    private static final List<ProjectedCounties> PROJECTED = new ArrayList<>();
+
+    private CountyDataset() { }
+
+    /** State dictionary shared by every dataset loaded through this class. */
+    public static IdDictionary states() { return STATES; }
+
+    /**
+     * Counties of {@code path}, loading them off the calling thread if they are
+     * not cached or the file has changed since. Never blocks.
+     */
+    public static synchronized CompletableFuture<CountyData> load(String path) {
+        File file = new File(path);
+        String key = file.getAbsolutePath();
+        Entry cached = CACHE.get(key);
+        if (cached != null && cached.modified == file.lastModified() && cached.length == file.length()
+                && !cached.future.isCompletedExceptionally()) {
+            return cached.future;
+        }
+
+        Entry entry = new Entry(file.lastModified(), file.length());
+        CACHE.put(key, entry);
+        LOADER.execute(() -> {
+            try {
+                CountyData data = CountyData.load(file, STATES, f -> entry.progress = f);
+                System.out.println("Loaded " + data.size() + " counties from " + path + ".");
+                entry.future.complete(data);
+            } catch (IOException | RuntimeException e) {
+                entry.future.completeExceptionally(e);
+            }
+        });
+        return entry.future;
+    }
+
+    /**
+     * Installs counties that were loaded some other way (e.g. from a
+     * {@link DataSnapshot}) as the current data for {@code path}. Their state
+     * ordinals must come from {@link #states()}.
+     */
+    public static synchronized void put(String path, CountyData data) {
+        File file = new File(path);
+        Entry entry = new Entry(file.lastModified(), file.length());
+        entry.future.complete(data);
+        CACHE.put(file.getAbsolutePath(), entry);
+    }
+
+    /**
+     * Installs {@code after} as the current data for {@code path} (as
+     * {@link #put}) and tells every listener, on the calling thread.
+     */
+    public static void update(String path, CountyData before, CountyData after, int[] rows, long detectedNanos) {
+        put(path, after);
+        String key = new File(path).getAbsolutePath();
+        for (UpdateListener l : LISTENERS) l.countiesUpdated(key, before, after, rows, detectedNanos);
+    }
+
+    public static void addListener(UpdateListener l)    { LISTENERS.add(l); }
+    public static void removeListener(UpdateListener l) { LISTENERS.remove(l); }
+
+    /** Blocking form of {@link #load(String)} for callers off the EDT. */
+    public static CountyData get(String path) throws IOException {
+        try {
+            return load(path).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IOException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted loading " + path);
+        }
+    }
+
+    /**
+     * County positions of {@code data} under {@code projection}, built on first
+     * use and then shared. Tables from live updates keep their geography
+     * columns (see {@link ProjectedCounties#covers}), so they reuse it too.
+     */
+    public static ProjectedCounties projected(CountyData data, MapProjection projection) {
+        synchronized (PROJECTED) {
+            for (int i = PROJECTED.size() - 1; i >= 0; i--) {
+                ProjectedCounties p = PROJECTED.get(i);
+                if (p.covers(data, projection)) {
+                    PROJECTED.add(PROJECTED.remove(i));
+                    return p;
+                }
+            }
+            // Built under the lock: concurrent batch renders wait for one projection instead of each making their own
+            ProjectedCounties p = new ProjectedCounties(data, projection);
+            if (PROJECTED.size() == PROJECTIONS) PROJECTED.remove(0);
+            PROJECTED.add(p);
+            return p;
+        }
+    }
+
+    /** Fraction (0..1) of the latest load of {@code path} parsed so far; 1 once cached. */
+    public static synchronized double progress(String path) {
+        Entry e = CACHE.get(new File(path).getAbsolutePath());
+        if (e == null) return 0.0;
+        return e.future.isDone() ? 1.0 : e.progress;
+    }
+}
@@ -0,0 +1,152 @@
+import java.util.*;
+
+/**
+ * Immutable spatial and per-state index over a {@link CountyData} table.
+ *
+ * Counties are bucketed into a uniform lat/lng grid of {@code cellDegrees}
+ * cells stored CSR-style: the counties of cell {@code k} are
+ * {@code cellItems[cellStart[k] .. cellStart[k + 1])}. The same layout gives
+ * a per-state range index, so "every county in TX" is a contiguous slice
+ * rather than a scan. Box queries write into a caller-supplied buffer and
+ * nearest-county lookups only visit the cells around the query point; neither
+ * allocates.
+ *
+ * The grid can also be built over projected plane coordinates (see
+ * {@link ProjectedCounties}); "lat" and "lon" below then mean plane y and x.
+ */
+public class CountyGrid {
+
+    private final CountyData counties;
+    private final double[] lat, lon;      // indexed coordinates: counties.lat/lon or a projection of them
+    private final double cellDegrees;
+    private final double minLat, minLon;
+    private final int rows, cols;
+    private final int[] cellStart;        // [rows * cols + 1]
+    private final int[] cellItems;        // county rows, grouped by cell
+
+    private final int[] stateStart;       // [states + 1]
+    private final int[] stateItems;       // county rows, grouped by state ordinal
+
+    public CountyGrid(CountyData counties) {
+        this(counties, 1.0);
+    }
+
+    public CountyGrid(CountyData counties, double cellDegrees) {
+        this(counties, counties.lat, counties.lon, cellDegrees);
+    }
+
+    /** Grid over coordinates other than the table's own, such as projected ones; {@code cell} is in their units. */
+    public CountyGrid(CountyData counties, double[] lat, double[] lon, double cellDegrees) {
+        this.counties = counties;
+        this.lat = lat;
+        this.lon = lon;
+        this.cellDegrees = cellDegrees;
+        int n = counties.size();
+
+        double loLat = Double.POSITIVE_INFINITY, hiLat = Double.NEGATIVE_INFINITY;
+        double loLon = Double.POSITIVE_INFINITY, hiLon = Double.NEGATIVE_INFINITY;
+        for (int j = 0; j < n; j++) {
+            loLat = Math.min(loLat, lat[j]);
+            hiLat = Math.max(hiLat, lat[j]);
+            loLon = Math.min(loLon, lon[j]);
+            hiLon = Math.max(hiLon, lon[j]);
+        }
+        if (n == 0) loLat = hiLat = loLon = hiLon = 0;
+        this.minLat = loLat;
+        this.minLon = loLon;
+        this.rows = (int) ((hiLat - loLat) / cellDegrees) + 1;
+        this.cols = (int) ((hiLon - loLon) / cellDegrees) + 1;
+
+        // Counting sort into cells
+        int[] cellOf = new int[n];
+        cellStart = new int[rows * cols + 1];
+        for (int j = 0; j < n; j++) {
+            cellOf[j] = row(lat[j]) * cols + col(lon[j]);
+            cellStart[cellOf[j] + 1]++;
+        }
+        for (int k = 0; k < rows * cols; k++) cellStart[k + 1] += cellStart[k];
+        cellItems = new int[n];
+        int[] fill = Arrays.copyOf(cellStart, rows * cols);
+        for (int j = 0; j < n; j++) cellItems[fill[cellOf[j]]++] = j;
+
+        // ... and into states
+        int states = counties.states.size();
+        stateStart = new int[states + 1];
+        for (int j = 0; j < n; j++) stateStart[counties.state[j] + 1]++;
+        for (int s = 0; s < states; s++) stateStart[s + 1] += stateStart[s];
+        stateItems = new int[n];
+        fill = Arrays.copyOf(stateStart, states);
+        for (int j = 0; j < n; j++) stateItems[fill[counties.state[j]]++] = j;
+    }
+
+    private int row(double lat) { return clamp((int) Math.floor((lat - minLat) / cellDegrees), rows); }
+    private int col(double lon) { return clamp((int) Math.floor((lon - minLon) / cellDegrees), cols); }
+
+    private static int clamp(int v, int size) {
+        return v < 0 ? 0 : (v >= size ? size - 1 : v);
+    }
+
+    public CountyData counties() { return counties; }
+
+    // ----------------------------- STATE RANGES -----------------------------
+    /** Counties of {@code state} are {@code stateCounty(i)} for i in [stateStart, stateEnd). */
+    public int stateStart(int state) { return inStates(state) ? stateStart[state] : 0; }
+    public int stateEnd(int state)   { return inStates(state) ? stateStart[state + 1] : 0; }
+    public int stateCounty(int i)    { return stateItems[i]; }
+
+    private boolean inStates(int state) { return state >= 0 && state + 1 < stateStart.length; }
+
+    // ----------------------------- BOX QUERY -----------------------------
+    /**
+     * Writes into {@code out} every county whose point lies inside the box and
+     * returns how many there are. {@code out} must hold {@link CountyData#size()}
+     * entries in the worst case.
+     */
+    public int query(double loLat, double loLon, double hiLat, double hiLon, int[] out) {
+        if (counties.size() == 0 || hiLat < loLat || hiLon < loLon) return 0;
+        int r0 = row(loLat), r1 = row(hiLat), c0 = col(loLon), c1 = col(hiLon);
+        int count = 0;
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int k = r * cols + c;
+                boolean inner = r > r0 && r < r1 && c > c0 && c < c1;
+                for (int i = cellStart[k]; i < cellStart[k + 1]; i++) {
+                    int j = cellItems[i];
+                    if (inner || (lat[j] >= loLat && lat[j] <= hiLat
+                            && lon[j] >= loLon && lon[j] <= hiLon)) {
+                        out[count++] = j;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    // ----------------------------- NEAREST -----------------------------
+    /**
+     * Nearest county to (lat, lon) within {@code maxDist}, or -1. Distances are
+     * measured as {@code hypot(kx * dLon, ky * dLat)}, so passing the map's
+     * pixels-per-degree scales makes this a nearest-on-screen search. When
+     * {@code state} is not -1 only that state's counties are considered.
+     */
+    public int nearest(double lat, double lon, double kx, double ky, double maxDist, int state) {
+        if (counties.size() == 0) return -1;
+        double dLat = maxDist / ky, dLon = maxDist / kx;
+        int r0 = row(lat - dLat), r1 = row(lat + dLat), c0 = col(lon - dLon), c1 = col(lon + dLon);
+        int best = -1;
+        double bestSq = maxDist * maxDist;
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int k = r * cols + c;
+                for (int i = cellStart[k]; i < cellStart[k + 1]; i++) {
+                    int j = cellItems[i];
+                    if (state != -1 && counties.state[j] != state) continue;
+                    double x = (this.lon[j] - lon) * kx, y = (this.lat[j] - lat) * ky;
+                    double sq = x * x + y * y;
+                    if (sq <= bestSq) { bestSq = sq; best = j; }
+                }
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,143 @@
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+/**
+ * Vote-weighted density heatmap of county results, for views where county
+ * dots would pile on top of each other (national zoom, precinct-scale data).
+ *
+ * Counties are binned into {@link #BIN}-pixel cells and their votes summed
+ * per candidate, then spread over neighbouring cells with two passes of a
+ * separable box blur (a tent of {@link #RADIUS} cells each side per pass), so
+ * that sparse points still read as an area.
+ * Each cell is then coloured by its summed leader, blended
+ * from gray to full colour as the margin grows to {@link #FULL_MARGIN}, with
+ * opacity rising with the log of the cell's votes. Pixels are written straight
+ * into the int[] raster of a cell-resolution image, which the map scales up
+ * onto its dot layer. Buffers are kept between renders, so a rebuild at the
+ * same size allocates nothing.
+ */
+public final class CountyHeatmap {
+
+    /** Screen pixels per heatmap cell. */
+    static final int BIN = 3;
+    /** Box blur radius in cells; two passes of a running sum, so its cost does not depend on it. */
+    static final int RADIUS = 2;
+    /** Margin share (leader minus runner-up, over all votes) drawn at full colour. */
+    static final double FULL_MARGIN = 0.40;
+
+    private static final int NEUTRAL = 0xC8C8C8;
+
+    private BufferedImage image;
+    private int[] pixels;
+    private long[][] sums = new long[0][];      // [candidate][cell]
+    private long[] scratch = new long[0];       // one candidate's horizontal blur pass
+    private int[] rgb = new int[0];             // [candidate] palette colour
+    private int cols, rows;
+
+    /** Cells across and down of the last render. */
+    public int cols() { return cols; }
+    public int rows() { return rows; }
+
+    /**
+     * Heatmap of the frame's counties {@code items[0..n)} (indexes into
+     * {@code frame.rows}) for a {@code width} x {@code height} view in which
+     * the frame is drawn at {@code zoom} and offset by (panX, panY). The
+     * returned image is {@link #cols()} x {@link #rows()} cells and is reused
+     * by the next call.
+     */
+    public BufferedImage render(CountyData data, ProjectedCounties.Frame frame, int[] items, int n,
+                                int width, int height, double zoom, double panX, double panY) {
+        int k = data.candidates();
+        int c0 = (width + BIN - 1) / BIN, r0 = (height + BIN - 1) / BIN;
+        if (image == null || c0 != cols || r0 != rows) {
+            cols = c0;
+            rows = r0;
+            image = new BufferedImage(cols, rows, BufferedImage.TYPE_INT_ARGB);
+            pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+            sums = new long[k][cols * rows];
+            scratch = new long[cols * rows];
+        } else if (sums.length != k) {
+            sums = new long[k][cols * rows];
+        }
+
+        // Bin: votes of each county into the cell under its screen position
+        float[] fx = frame.x, fy = frame.y;
+        for (int i = 0; i < n; i++) {
+            int p = items[i], j = frame.rows[p];
+            double x = fx[p] * zoom + panX, y = fy[p] * zoom + panY;
+            if (x < 0 || y < 0 || x >= width || y >= height) continue;
+            int cell = ((int) y / BIN) * cols + (int) x / BIN;
+            for (int c = 0; c < k; c++) sums[c][cell] += data.votes[c][j];
+        }
+
+        for (int c = 0; c < k; c++) {
+            blur(sums[c]);
+            blur(sums[c]);
+        }
+
+        if (rgb.length != k) rgb = new int[k];
+        for (int c = 0; c < k; c++) rgb[c] = TheVizzard.getCandidateColor(c).getRGB() & 0xFFFFFF;
+
+        long peak = 0;
+        int cells = cols * rows;
+        for (int cell = 0; cell < cells; cell++) {
+            long total = 0;
+            for (int c = 0; c < k; c++) total += sums[c][cell];
+            peak = Math.max(peak, total);
+        }
+        double logPeak = Math.log1p(peak);
+
+        // Shade: leader's colour by margin, opacity by votes; then clear the sums for next time
+        for (int cell = 0; cell < cells; cell++) {
+            long total = 0, best = -1, second = 0;
+            int lead = TallyEngine.TIE;
+            for (int c = 0; c < k; c++) {
+                long v = sums[c][cell];
+                total += v;
+                if (v > best) { second = Math.max(best, 0); best = v; lead = c; }
+                else if (v > second) second = v;
+                sums[c][cell] = 0;
+            }
+            if (total == 0) {
+                pixels[cell] = 0;
+                continue;
+            }
+            if (best == second) lead = TallyEngine.TIE;
+            double strength = lead == TallyEngine.TIE ? 0 : Math.min(1.0, (best - second) / (double) total / FULL_MARGIN);
+            int color = blend(NEUTRAL, lead == TallyEngine.TIE ? NEUTRAL : rgb[lead], 0.25 + 0.75 * strength);
+            int alpha = (int) (70 + 185 * Math.log1p(total) / logPeak);
+            pixels[cell] = alpha << 24 | color;
+        }
+        return image;
+    }
+
+    /** Box blur of one cell grid in place: rows into {@link #scratch}, then columns back. */
+    private void blur(long[] a) {
+        for (int y = 0; y < rows; y++) {
+            int base = y * cols;
+            long acc = 0;
+            for (int x = 0; x < RADIUS && x < cols; x++) acc += a[base + x];
+            for (int x = 0; x < cols; x++) {
+                if (x + RADIUS < cols) acc += a[base + x + RADIUS];
+                if (x - RADIUS - 1 >= 0) acc -= a[base + x - RADIUS - 1];
+                scratch[base + x] = acc;
+            }
+        }
+        for (int x = 0; x < cols; x++) {
+            long acc = 0;
+            for (int y = 0; y < RADIUS && y < rows; y++) acc += scratch[y * cols + x];
+            for (int y = 0; y < rows; y++) {
+                if (y + RADIUS < rows) acc += scratch[(y + RADIUS) * cols + x];
+                if (y - RADIUS - 1 >= 0) acc -= scratch[(y - RADIUS - 1) * cols + x];
+                a[y * cols + x] = acc;
+            }
+        }
+    }
+
+    private static int blend(int from, int to, double t) {
+        int r = (int) Math.round(((from >> 16) & 0xFF) * (1 - t) + ((to >> 16) & 0xFF) * t);
+        int g = (int) Math.round(((from >> 8) & 0xFF) * (1 - t) + ((to >> 8) & 0xFF) * t);
+        int b = (int) Math.round((from & 0xFF) * (1 - t) + (to & 0xFF) * t);
+        return r << 16 | g << 8 | b;
+    }
+}
@@ -0,0 +1,389 @@
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Zero-copy CSV tokenizer over a memory-mapped file.
+ *
+ * Handles RFC 4180 quoting ("a,b" and doubled "" quotes), CRLF or LF line
+ * ends and a leading UTF-8 BOM. Each {@link #next()} call only records field
+ * offsets into the mapped bytes; numbers, including grouped ones such as
+ * " 161,422,000 ", are parsed straight from those bytes. Strings are only
+ * created when {@link #string(int)} is called.
+ *
+ * Files larger than one mapping window are mapped piecewise; a record that
+ * straddles the window end is re-read from a window starting at that record.
+ */
+public class CsvTokenizer implements Closeable {
+
+    /** Largest single mapping; records must be shorter than this. */
+    private static final long WINDOW = 1L << 30;
+
+    private final long window;
+    private final FileChannel channel;
+    private final long fileSize;
+
+    private MappedByteBuffer buf;
+    private long base;            // file offset of buf position 0
+    private int limit;            // bytes mapped in buf
+    private int pos;              // next unread byte in buf
+    private int recordStart;      // buf position of the current record
+
+    private int[] starts = new int[32], ends = new int[32];
+    private boolean[] escaped = new boolean[32];
+    private int fields;
+    private long record = -1;
+    private long bytesRead;
+
+    public CsvTokenizer(File file) throws IOException {
+        this(file, WINDOW);
+    }
+
+    /** Tokenizer with a custom mapping window (small windows exercise remapping). */
+    CsvTokenizer(File file, long window) throws IOException {
+        if (!file.exists()) throw new FileNotFoundException(file.getPath());
+        this.window = window;
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        fileSize = channel.size();
+        map(0);
+        // Skip the UTF-8 byte-order mark Excel writes at the start of the file
+        if (limit >= 3 && (buf.get(0) & 0xFF) == 0xEF && (buf.get(1) & 0xFF) == 0xBB
+                && (buf.get(2) & 0xFF) == 0xBF) {
+            pos = 3;
+        }
+    }
+
+    private void map(long offset) throws IOException {
+        base = offset;
+        limit = (int) Math.min(window, fileSize - offset);
+        buf = channel.map(FileChannel.MapMode.READ_ONLY, offset, limit);
+        pos = 0;
+    }
+
+    // ----------------------------- RECORDS -----------------------------
+    /** Advances to the next record. Returns false at end of file. */
+    public boolean next() throws IOException {
+        if (base + pos >= fileSize) return false;
+        int start = pos;
+        while (!scanRecord()) {
+            // Record runs past the mapped window: remap starting at the record
+            long recordOffset = base + start;
+            if (start == 0) throw new IOException("CSV record longer than " + window + " bytes");
+            map(recordOffset);
+            start = 0;
+        }
+        recordStart = start;
+        bytesRead += pos - start;
+        record++;
+        return true;
+    }
+
+    /**
+     * Tokenizes one record from {@code pos}. Returns false if the window ended
+     * before the record did (and more of the file remains).
+     */
+    private boolean scanRecord() {
+        int p = pos;
+        fields = 0;
+        while (true) {
+            ensureFieldSlot();
+            if (p < limit && buf.get(p) == '"') {
+                // Quoted field: runs to the closing quote; "" is an escaped quote
+                int s = p + 1;
+                boolean esc = false;
+                p = s;
+                while (true) {
+                    if (p >= limit) return truncated(p);
+                    byte b = buf.get(p);
+                    if (b == '"') {
+                        if (p + 1 < limit && buf.get(p + 1) == '"') { esc = true; p += 2; continue; }
+                        if (p + 1 >= limit && base + limit < fileSize) return false;
+                        break;
+                    }
+                    p++;
+                }
+                starts[fields] = s;
+                ends[fields] = p;
+                escaped[fields] = esc;
+                fields++;
+                p++;                                          // closing quote
+                while (p < limit && buf.get(p) != ',' && buf.get(p) != '\n' && buf.get(p) != '\r') p++;
+            } else {
+                int s = p;
+                while (p < limit) {
+                    byte b = buf.get(p);
+                    if (b == ',' || b == '\n' || b == '\r') break;
+                    p++;
+                }
+                starts[fields] = s;
+                ends[fields] = p;
+                escaped[fields] = false;
+                fields++;
+            }
+
+            if (p >= limit) {
+                if (base + limit < fileSize) return false;
+                pos = p;
+                return true;
+            }
+            byte b = buf.get(p);
+            if (b == ',') { p++; continue; }
+            // End of record: swallow \r\n, \n or a lone \r
+            if (b == '\r') p++;
+            if (p < limit && buf.get(p) == '\n') p++;
+            else if (p >= limit && base + limit < fileSize) return false;
+            pos = p;
+            return true;
+        }
+    }
+
+    private boolean truncated(int p) {
+        if (base + limit < fileSize) return false;
+        // Unterminated quote at end of file: take what is there
+        starts[fields] = Math.min(p, limit);
+        ends[fields] = limit;
+        fields++;
+        pos = limit;
+        return true;
+    }
+
+    private void ensureFieldSlot() {
+        if (fields < starts.length) return;
+        int n = starts.length * 2;
+        starts = java.util.Arrays.copyOf(starts, n);
+        ends = java.util.Arrays.copyOf(ends, n);
+        escaped = java.util.Arrays.copyOf(escaped, n);
+    }
+
+    /** 0-based index of the current record (line 0 is the first record after the BOM). */
+    public long recordNumber() { return record; }
+    /** Bytes consumed so far, BOM excluded. */
+    public long bytesRead()    { return bytesRead; }
+    public long fileSize()     { return fileSize; }
+    public int fieldCount()    { return fields; }
+
+    /**
+     * 64-bit hash of the current record's raw bytes, line end included. Lets a
+     * re-read of the file spot changed records without parsing any field.
+     */
+    public long recordHash() {
+        long h = 0x9E3779B97F4A7C15L;
+        int p = recordStart;
+        for (; p + 8 <= pos; p += 8) h = Long.rotateLeft(h ^ buf.getLong(p) * 0xC2B2AE3D27D4EB4FL, 31) * 0x9E3779B97F4A7C15L;
+        for (; p < pos; p++) h = (h ^ buf.get(p)) * 0x100000001B3L;
+        return h ^ (h >>> 29);
+    }
+
+    // ----------------------------- FIELDS -----------------------------
+    /** True if the field is missing or holds only spaces. */
+    public boolean isBlank(int f) {
+        if (f < 0 || f >= fields) return true;
+        for (int p = starts[f]; p < ends[f]; p++) if (buf.get(p) != ' ') return false;
+        return true;
+    }
+
+    /** Field as a trimmed String, with "" unescaped. Missing fields are "". */
+    public String string(int f) {
+        if (f < 0 || f >= fields) return "";
+        int s = starts[f], e = ends[f];
+        while (s < e && buf.get(s) == ' ') s++;
+        while (e > s && buf.get(e - 1) == ' ') e--;
+        byte[] bytes = new byte[e - s];
+        int n = 0;
+        for (int p = s; p < e; p++) {
+            byte b = buf.get(p);
+            if (escaped[f] && b == '"' && p + 1 < e && buf.get(p + 1) == '"') p++;
+            bytes[n++] = b;
+        }
+        return new String(bytes, 0, n, StandardCharsets.UTF_8);
+    }
+
+    /** ASCII case-insensitive comparison of the trimmed field, without creating a String. */
+    public boolean equalsIgnoreCase(int f, String s) {
+        if (f < 0 || f >= fields) return s.isEmpty();
+        int a = starts[f], e = ends[f];
+        while (a < e && buf.get(a) == ' ') a++;
+        while (e > a && buf.get(e - 1) == ' ') e--;
+        if (e - a != s.length()) return false;
+        for (int i = 0; i < s.length(); i++) {
+            int x = buf.get(a + i), y = s.charAt(i);
+            if (x != y && Character.toLowerCase(x) != Character.toLowerCase(y)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Parses a whole number, ignoring surrounding spaces and grouping commas
+     * ("2,499", " 161,422,000 "). A fractional part is truncated.
+     *
+     * @throws NumberFormatException if the field has no digits or other text
+     */
+    public long parseLong(int f) {
+        if (f < 0 || f >= fields) throw new NumberFormatException("missing field " + f);
+        int p = starts[f], e = ends[f];
+        while (p < e && buf.get(p) == ' ') p++;
+        while (e > p && buf.get(e - 1) == ' ') e--;
+        boolean neg = false;
+        if (p < e && (buf.get(p) == '-' || buf.get(p) == '+')) neg = buf.get(p++) == '-';
+
+        long value = 0;
+        int digits = 0;
+        for (; p < e; p++) {
+            byte b = buf.get(p);
+            if (b >= '0' && b <= '9') { value = value * 10 + (b - '0'); digits++; }
+            else if (b == ',') continue;
+            else if (b == '.') { p = skipDigits(p + 1, e); break; }
+            else throw new NumberFormatException("not a number in field " + f + " of record " + record);
+        }
+        if (digits == 0 || p != e) throw new NumberFormatException("not a number in field " + f + " of record " + record);
+        return neg ? -value : value;
+    }
+
+    /** {@link #parseLong(int)} with a default for blank or malformed fields. */
+    public long parseLong(int f, long orElse) {
+        try {
+            return parseLong(f);
+        } catch (NumberFormatException e) {
+            return orElse;
+        }
+    }
+
+    /**
+     * Parses a decimal such as "-82.081" or "1,234.5". A trailing '%' is
+     * accepted and ignored; exponents fall back to {@link Double#parseDouble}.
+     *
+     * @throws NumberFormatException if the field is not a number
+     */
+    public double parseDouble(int f) {
+        if (f < 0 || f >= fields) throw new NumberFormatException("missing field " + f);
+        int p = starts[f], e = ends[f];
+        while (p < e && buf.get(p) == ' ') p++;
+        while (e > p && buf.get(e - 1) == ' ') e--;
+        if (e > p && buf.get(e - 1) == '%') e--;
+        boolean neg = false;
+        if (p < e && (buf.get(p) == '-' || buf.get(p) == '+')) neg = buf.get(p++) == '-';
+
+        long mantissa = 0;
+        int digits = 0, scale = 0;
+        boolean fraction = false, sawDigit = false;
+        for (; p < e; p++) {
+            byte b = buf.get(p);
+            if (b >= '0' && b <= '9') {
+                if (digits >= 17 || scale >= POW10.length - 1) return slowDouble(f);
+                mantissa = mantissa * 10 + (b - '0');
+                if (mantissa != 0) digits++;
+                if (fraction) scale++;
+                sawDigit = true;
+            } else if (b == '.' && !fraction) {
+                fraction = true;
+            } else if (b == ',' && !fraction) {
+                continue;
+            } else if (b == 'e' || b == 'E') {
+                return slowDouble(f);
+            } else {
+                throw new NumberFormatException("not a number in field " + f + " of record " + record);
+            }
+        }
+        if (!sawDigit) {
+            throw new NumberFormatException("not a number in field " + f + " of record " + record);
+        }
+        // Exact integer divided by an exact power of ten rounds correctly
+        double v = scale == 0 ? mantissa : mantissa / POW10[scale];
+        return neg ? -v : v;
+    }
+
+    /** {@link #parseDouble(int)} with a default for blank or malformed fields. */
+    public double parseDouble(int f, double orElse) {
+        try {
+            return parseDouble(f);
+        } catch (NumberFormatException e) {
+            return orElse;
+        }
+    }
+
+    /**
+     * Parses a clock time "H:MM" or "H:MM:SS" into seconds after midnight.
+     *
+     * @throws NumberFormatException if the field is not a time
+     */
+    public int parseClock(int f) {
+        if (f < 0 || f >= fields) throw new NumberFormatException("missing field " + f);
+        int p = starts[f], e = ends[f];
+        while (p < e && buf.get(p) == ' ') p++;
+        while (e > p && buf.get(e - 1) == ' ') e--;
+        int seconds = 0, part = 0, parts = 0, digits = 0;
+        for (; p <= e; p++) {
+            byte b = p < e ? buf.get(p) : (byte) ':';
+            if (b >= '0' && b <= '9') { part = part * 10 + (b - '0'); digits++; }
+            else if (b == ':' && digits > 0 && parts < 3) { seconds = seconds * 60 + part; part = 0; digits = 0; parts++; }
+            else throw new NumberFormatException("not a time in field " + f + " of record " + record);
+        }
+        if (parts < 2) throw new NumberFormatException("not a time in field " + f + " of record " + record);
+        return parts == 2 ? seconds * 60 : seconds;
+    }
+
+    /**
+     * Parses a US date "M/D/YYYY" into days since 1970-01-01.
+     *
+     * @throws NumberFormatException if the field is not a date
+     */
+    public long parseDate(int f) {
+        if (f < 0 || f >= fields) throw new NumberFormatException("missing field " + f);
+        int p = starts[f], e = ends[f];
+        while (p < e && buf.get(p) == ' ') p++;
+        while (e > p && buf.get(e - 1) == ' ') e--;
+        int month = 0, day = 0, year = 0, k = 0, digits = 0;
+        for (; p <= e && k < 3; p++) {
+            byte b = p < e ? buf.get(p) : (byte) '/';
+            if (b >= '0' && b <= '9') {
+                int d = b - '0';
+                if (k == 0) month = month * 10 + d;
+                else if (k == 1) day = day * 10 + d;
+                else year = year * 10 + d;
+                digits++;
+            } else if (b == '/' && digits > 0) {
+                k++;
+                digits = 0;
+            } else {
+                throw new NumberFormatException("not a date in field " + f + " of record " + record);
+            }
+        }
+        if (k != 3 || p <= e || month < 1 || month > 12 || day < 1 || day > 31) {
+            throw new NumberFormatException("not a date in field " + f + " of record " + record);
+        }
+        return daysFromCivil(year, month, day);
+    }
+
+    /** Proleptic Gregorian date to days since 1970-01-01 (Hinnant's days_from_civil). */
+    static long daysFromCivil(int y, int m, int d) {
+        y -= m <= 2 ? 1 : 0;
+        long era = Math.floorDiv(y, 400);
+        long yoe = y - era * 400;
+        long doy = (153L * (m + (m > 2 ? -3 : 9)) + 2) / 5 + d - 1;
+        long doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return era * 146097 + doe - 719468;
+    }
+
+    private int skipDigits(int p, int e) {
+        while (p < e && buf.get(p) >= '0' && buf.get(p) <= '9') p++;
+        return p;
+    }
+
+    /** Rare inputs (exponents, more than 17 significant digits) go through the JDK parser. */
+    private double slowDouble(int f) {
+        return Double.parseDouble(string(f).replace(",", "").replace("%", ""));
+    }
+
+    private static final double[] POW10 = new double[23];
+    static {
+        POW10[0] = 1.0;
+        for (int i = 1; i < POW10.length; i++) POW10[i] = POW10[i - 1] * 10.0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,196 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.zip.CRC32C;
+
+/**
+ * Versioned binary snapshot of everything TheVizzard loads at startup:
+ * electoral votes and per-state votes (the {@link VoteStore}) plus the county
+ * table ({@link CountyData}).
+ *
+ * Written after a successful load from the CSV/XLSX sources and memory-mapped
+ * on later runs, so a warm start skips POI and CSV parsing entirely. The
+ * header records a checksum of the source files; any edit to them makes the
+ * snapshot stale and it is simply rebuilt.
+ *
+ * Layout (big-endian): magic, version, source checksum, state IDs in ordinal
+ * order, the store's candidates and columns, then the county columns. Arrays
+ * are length-prefixed and read with bulk buffer copies.
+ */
+public final class DataSnapshot {
+
+    public static final String DEFAULT_PATH = "data/vizzard.snap";
+
+    private static final long MAGIC = 0x56495A5A534E4150L;   // "VIZZSNAP"
+    static final int VERSION = 1;
+
+    private DataSnapshot() { }
+
+    // ----------------------------- CHECKSUM -----------------------------
+    /** CRC32C over each source's path name, length and bytes; missing files count as empty. */
+    public static long checksum(File... sources) throws IOException {
+        CRC32C crc = new CRC32C();
+        for (File f : sources) {
+            crc.update(f.getName().getBytes(StandardCharsets.UTF_8));
+            if (!f.exists()) continue;
+            try (FileChannel ch = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+                long size = ch.size();
+                crc.update(ByteBuffer.allocate(8).putLong(0, size));
+                for (long pos = 0; pos < size; pos += Integer.MAX_VALUE) {
+                    crc.update(ch.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(Integer.MAX_VALUE, size - pos)));
+                }
+            }
+        }
+        return crc.getValue();
+    }
+
+    // ----------------------------- WRITE -----------------------------
+    /** Writes {@code store} and {@code counties} (both on {@code states}) atomically to {@code file}. */
+    public static void write(File file, long checksum, IdDictionary states, VoteStore store, CountyData counties)
+            throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp), 1 << 16))) {
+            out.writeLong(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(checksum);
+
+            int states0 = states.size();
+            out.writeInt(states0);
+            for (int s = 0; s < states0; s++) writeString(out, states.id(s));
+
+            // Vote store
+            int k = store.candidates(), size = store.size();
+            out.writeInt(k);
+            for (int c = 0; c < k; c++) writeString(out, store.candidateName(c));
+            out.writeInt(size);
+            for (int s = 0; s < size; s++) out.writeInt(store.electoral(s));
+            for (int s = 0; s < size; s++) out.writeBoolean(store.reported(s));
+            for (int c = 0; c < k; c++) for (int s = 0; s < size; s++) out.writeLong(store.votes(c, s));
+
+            // Counties
+            int n = counties.size();
+            out.writeInt(counties.candidates());
+            for (int c = 0; c < counties.candidates(); c++) writeString(out, counties.candidateName(c));
+            out.writeInt(n);
+            out.writeInt(counties.rejected);
+            for (int j = 0; j < n; j++) writeString(out, counties.names[j]);
+            for (int v : counties.fips) out.writeInt(v);
+            for (int v : counties.state) out.writeInt(v);
+            for (double v : counties.lat) out.writeDouble(v);
+            for (double v : counties.lon) out.writeDouble(v);
+            for (long[] col : counties.votes) for (long v : col) out.writeLong(v);
+            for (long v : counties.population) out.writeLong(v);
+            for (double v : counties.pctStatePop) out.writeDouble(v);
+            for (double v : counties.factor) out.writeDouble(v);
+            for (double v : counties.voteCast) out.writeDouble(v);
+            for (long v : counties.returnTime) out.writeLong(v);
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    // ----------------------------- READ -----------------------------
+    /**
+     * Loads a snapshot into {@code store} (which must be empty) and returns its
+     * counties, with state IDs interned into {@code states}. Returns null, and
+     * leaves {@code store} untouched, if the file is missing, from another
+     * version, or was built from sources with a different checksum.
+     */
+    public static CountyData read(File file, long checksum, IdDictionary states, VoteStore store) throws IOException {
+        if (!file.exists()) return null;
+        long start = System.nanoTime();
+        try (FileChannel ch = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            if (buf.remaining() < 20 || buf.getLong() != MAGIC || buf.getInt() != VERSION || buf.getLong() != checksum) {
+                Metrics.counter("load.snapshot.stale").increment();
+                return null;
+            }
+
+            int stateCount = buf.getInt();
+            String[] ids = new String[stateCount];
+            for (int s = 0; s < stateCount; s++) ids[s] = readString(buf);
+
+            // Vote store columns are decoded fully before anything is written
+            int k = buf.getInt();
+            String[] storeCandidates = new String[k];
+            for (int c = 0; c < k; c++) storeCandidates[c] = readString(buf);
+            int size = buf.getInt();
+            int[] electoral = ints(buf, size);
+            byte[] reported = new byte[size];
+            buf.get(reported);
+            long[][] storeVotes = new long[k][];
+            for (int c = 0; c < k; c++) storeVotes[c] = longs(buf, size);
+
+            int kc = buf.getInt();
+            String[] candidates = new String[kc];
+            for (int c = 0; c < kc; c++) candidates[c] = readString(buf);
+            int n = buf.getInt();
+            int rejected = buf.getInt();
+            String[] names = new String[n];
+            for (int j = 0; j < n; j++) names[j] = readString(buf);
+            int[] fips = ints(buf, n);
+            int[] state = ints(buf, n);
+            double[] lat = doubles(buf, n), lon = doubles(buf, n);
+            long[][] votes = new long[kc][];
+            for (int c = 0; c < kc; c++) votes[c] = longs(buf, n);
+            long[] population = longs(buf, n);
+            double[] pctStatePop = doubles(buf, n), factor = doubles(buf, n), voteCast = doubles(buf, n);
+            long[] returnTime = longs(buf, n);
+
+            // Stored ordinals -> ordinals in the live dictionary (identical on a fresh start)
+            int[] ordinal = new int[stateCount];
+            for (int s = 0; s < stateCount; s++) ordinal[s] = s < size ? store.state(ids[s]) : states.intern(ids[s]);
+            for (int j = 0; j < n; j++) state[j] = ordinal[state[j]];
+
+            int[] column = new int[k];
+            for (int c = 0; c < k; c++) column[c] = store.candidate(storeCandidates[c]);
+            for (int s = 0; s < size; s++) {
+                if (electoral[s] != 0) store.setElectoral(ids[s], electoral[s]);
+                if (reported[s] == 0) continue;
+                for (int c = 0; c < k; c++) store.setVotes(ordinal[s], column[c], storeVotes[c][s]);
+            }
+
+            Metrics.loaded("snapshot", n + size, ch.size(), System.nanoTime() - start);
+            return new CountyData(states, candidates, names, fips, state, lat, lon, votes,
+                    population, pctStatePop, factor, voteCast, returnTime, rejected);
+        } catch (java.nio.BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException
+                 | NegativeArraySizeException e) {
+            throw new IOException("Corrupt snapshot " + file, e);
+        }
+    }
+
+    private static String readString(ByteBuffer buf) {
+        byte[] b = new byte[buf.getInt()];
+        buf.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    private static int[] ints(ByteBuffer buf, int n) {
+        int[] a = new int[n];
+        buf.asIntBuffer().get(a);
+        buf.position(buf.position() + 4 * n);
+        return a;
+    }
+
+    private static long[] longs(ByteBuffer buf, int n) {
+        long[] a = new long[n];
+        buf.asLongBuffer().get(a);
+        buf.position(buf.position() + 8 * n);
+        return a;
+    }
+
+    private static double[] doubles(ByteBuffer buf, int n) {
+        double[] a = new double[n];
+        buf.asDoubleBuffer().get(a);
+        buf.position(buf.position() + 8 * n);
+        return a;
+    }
+}
@@ -0,0 +1,372 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Live ingest of re-exported result files during a count.
+ *
+ * Watches the data directory with a {@link WatchService}. When
+ * Voting-Counties.csv changes, every record is hashed straight from the
+ * mapped file ({@link CsvTokenizer#recordHash()}) and compared with the hash
+ * from the previous pass; only records whose bytes differ are parsed, checked
+ * against their county's key ({@code county_fips}, or state and name when
+ * there is no FIPS) and applied as deltas. County-built state totals move by the
+ * difference and only the touched states are re-decided, as in
+ * {@link ReplayEngine#step()}. The new table is published through
+ * {@link CountyDataset#update}, so open maps redraw just the changed dots.
+ *
+ * Vote-Results.xlsx and State-Info.csv hold one row per state; a change to
+ * either is re-read into a scratch store and only differing states are
+ * written into the live {@link VoteStore}.
+ *
+ * A county file whose header or record count changed, or whose changed
+ * records now name other counties (rows added, removed or reordered), is
+ * reloaded in full instead.
+ */
+public final class DeltaIngest {
+
+    /** Quiet time after the last event before a burst of writes is ingested. */
+    static final long DEBOUNCE_MS = 100;
+    /** How often a file that was still being written while we read it is re-read. */
+    private static final int MAX_ATTEMPTS = 5;
+
+    private static final Metrics.Timer LATENCY = Metrics.timer("ingest.latency");
+    private static final Metrics.Counter CHANGED = Metrics.counter("ingest.rows.changed");
+    private static final Metrics.Counter PARSED = Metrics.counter("ingest.rows.parsed");
+    private static final Metrics.Counter RELOADS = Metrics.counter("ingest.reloads");
+
+    /** One ingested change, as reported to the listener. */
+    public static final class Update {
+        public final String file;
+        /** Records (county file) or state rows (state files) whose values changed. */
+        public final int changed;
+        public final int statesTouched;
+        /** Records that were re-parsed because their bytes differed. */
+        public final int parsed;
+        /** Records scanned; equal to {@link #parsed} for full reloads. */
+        public final int scanned;
+        public final boolean reloaded;
+        /** Electoral votes per candidate from the state rows and from the county rows. */
+        public final int[] stateEv, countyEv;
+        /** File change noticed -> tallies and maps updated. */
+        public final long latencyNanos;
+
+        Update(String file, int changed, int statesTouched, int parsed, int scanned, boolean reloaded,
+               int[] stateEv, int[] countyEv, long latencyNanos) {
+            this.file = file;
+            this.changed = changed;
+            this.statesTouched = statesTouched;
+            this.parsed = parsed;
+            this.scanned = scanned;
+            this.reloaded = reloaded;
+            this.stateEv = stateEv;
+            this.countyEv = countyEv;
+            this.latencyNanos = latencyNanos;
+        }
+    }
+
+    public interface Listener {
+        void onUpdate(Update update);
+    }
+
+    private final File dir;
+    private final String countyPath;
+    private final File countyFile, stateInfoFile, voteResultsFile;
+    private final VoteStore votes;
+    private final boolean streamXlsx;
+
+    // County rows as last ingested
+    private CountyData counties;
+    private CountyData.Columns header;
+    private long[] recordHash = new long[0];
+    private int[] rowOfRecord = new int[0];             // county row, or -1 for records the loader dropped
+    private int records = -1;                           // -1: file and table disagree, next change reloads
+
+    // County-built state totals and decisions
+    private CountyAggregator.Totals totals;
+    private int[] stateWinner;                          // [state ordinal]
+    private int[] countyEv;                             // [candidate]
+
+    /**
+     * Ingest for the files TheVizzard loaded: {@code counties} came from
+     * {@code countyPath} and {@code votes} from the two state files; all live
+     * in one directory.
+     */
+    public DeltaIngest(String countyPath, String stateInfoPath, String voteResultsPath,
+                       VoteStore votes, CountyData counties, boolean streamXlsx) throws IOException {
+        this.countyPath = countyPath;
+        this.countyFile = new File(countyPath).getAbsoluteFile();
+        this.stateInfoFile = new File(stateInfoPath).getAbsoluteFile();
+        this.voteResultsFile = new File(voteResultsPath).getAbsoluteFile();
+        this.dir = countyFile.getParentFile();
+        this.votes = votes;
+        this.streamXlsx = streamXlsx;
+        rebase(counties);
+    }
+
+    // ----------------------------- WATCH LOOP -----------------------------
+    /**
+     * Blocks, ingesting every change to the watched files until interrupted.
+     * Editors and exporters often write a file in several bursts (or write a
+     * temporary file and rename it), so events are collected until the
+     * directory has been quiet for {@link #DEBOUNCE_MS}.
+     */
+    public void watch(Listener listener) throws IOException, InterruptedException {
+        try (WatchService ws = dir.toPath().getFileSystem().newWatchService()) {
+            dir.toPath().register(ws, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            System.out.println("👀 Watching " + dir + " for updated result files.");
+            while (true) {
+                WatchKey key = ws.take();
+                long detected = System.nanoTime();
+                Set<String> changed = new LinkedHashSet<>();
+                do {
+                    for (WatchEvent<?> e : key.pollEvents()) {
+                        if (e.context() instanceof Path) changed.add(e.context().toString());
+                    }
+                    if (!key.reset()) throw new IOException("Lost watch on " + dir);
+                } while ((key = ws.poll(DEBOUNCE_MS, TimeUnit.MILLISECONDS)) != null);
+
+                for (String name : changed) {
+                    try {
+                        Update u = ingest(name, detected);
+                        if (u != null) listener.onUpdate(u);
+                    } catch (IOException | RuntimeException e) {
+                        System.out.println("❌ Could not ingest " + name + ": " + e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    /** Ingests a change to {@code name} in the watched directory; null if it is not one of our files. */
+    Update ingest(String name, long detectedNanos) throws IOException {
+        Update u;
+        if (name.equals(countyFile.getName()))           u = ingestCounties(detectedNanos);
+        else if (name.equals(voteResultsFile.getName())) u = ingestVoteResults(detectedNanos);
+        else if (name.equals(stateInfoFile.getName()))   u = ingestStateInfo(detectedNanos);
+        else return null;
+        LATENCY.record(u.latencyNanos);
+        CHANGED.add(u.changed);
+        PARSED.add(u.parsed);
+        if (u.reloaded) RELOADS.increment();
+        return u;
+    }
+
+    // ----------------------------- COUNTIES -----------------------------
+    /** Growable list of changed records: county row, new votes and return time. */
+    private static final class Changes {
+        int n;
+        int[] rows = new int[64];
+        long[][] votes;
+        long[] times = new long[64];
+
+        Changes(int candidates) {
+            votes = new long[candidates][64];
+        }
+
+        int add(int row) {
+            if (n == rows.length) {
+                rows = Arrays.copyOf(rows, n * 2);
+                times = Arrays.copyOf(times, n * 2);
+                for (int c = 0; c < votes.length; c++) votes[c] = Arrays.copyOf(votes[c], n * 2);
+            }
+            rows[n] = row;
+            return n++;
+        }
+    }
+
+    private Update ingestCounties(long detected) throws IOException {
+        for (int attempt = 1; ; attempt++) {
+            long modified = countyFile.lastModified(), length = countyFile.length();
+            Update u = scanCounties(detected);
+            // Still being written while we read it: the next event brings the rest, but try again now
+            if (countyFile.lastModified() == modified && countyFile.length() == length) return u;
+            if (attempt == MAX_ATTEMPTS) return u;
+        }
+    }
+
+    private Update scanCounties(long detected) throws IOException {
+        int k = counties.candidates();
+        Changes changes = new Changes(k);
+        long[] hashes = new long[Math.max(16, records)];
+        int n = 0, parsed = 0;
+        boolean reload = false;
+
+        try (CsvTokenizer csv = new CsvTokenizer(countyFile)) {
+            CountyData.Columns cols = csv.next() ? CountyData.Columns.read(csv, countyFile) : null;
+            reload = !header.sameLayout(cols);
+            long[] v = new long[k];
+            while (!reload && csv.next()) {
+                long h = csv.recordHash();
+                if (n == hashes.length) hashes = Arrays.copyOf(hashes, n * 2);
+                hashes[n] = h;
+                int record = n++;
+                if (record < records && recordHash[record] == h) continue;
+                if (record >= records) { reload = true; break; }       // more records than before
+                parsed++;
+
+                int row = rowOfRecord[record];
+                if (row < 0) {
+                    if (cols.accepts(csv)) { reload = true; break; }   // a dropped record became a county
+                    continue;
+                }
+                if (cols.key(csv, counties.states) != counties.key(row)) { reload = true; break; }
+                try {
+                    for (int c = 0; c < k; c++) v[c] = csv.parseLong(cols.candidates.columns[c]);
+                } catch (NumberFormatException e) {
+                    continue;   // unreadable now; keep the last good values
+                }
+                long t = cols.returnTime(csv);
+                boolean same = counties.returnTime[row] == t;
+                for (int c = 0; c < k && same; c++) same = counties.votes[c][row] == v[c];
+                if (same) continue;
+
+                int i = changes.add(row);
+                for (int c = 0; c < k; c++) changes.votes[c][i] = v[c];
+                changes.times[i] = t;
+            }
+        }
+        if (n != records) reload = true;                           // records removed
+        if (reload) return reloadCounties(detected);
+
+        recordHash = hashes;
+        if (changes.n == 0) {
+            return new Update(countyFile.getName(), 0, 0, parsed, n, false, stateEv(), countyEv.clone(),
+                    System.nanoTime() - detected);
+        }
+
+        int[] rows = Arrays.copyOf(changes.rows, changes.n);
+        long[][] rowVotes = new long[k][];
+        for (int c = 0; c < k; c++) rowVotes[c] = Arrays.copyOf(changes.votes[c], changes.n);
+        CountyData before = counties;
+        CountyData after = before.withResults(rows, rowVotes, Arrays.copyOf(changes.times, changes.n));
+
+        // Move each touched state by the difference, then re-decide only those states
+        boolean[] touched = new boolean[totals.states];
+        int statesTouched = 0;
+        for (int j : rows) {
+            int st = before.state[j];
+            for (int c = 0; c < k; c++) totals.votes[c][st] += after.votes[c][j] - before.votes[c][j];
+            if (!touched[st]) { touched[st] = true; statesTouched++; }
+        }
+        for (int st = 0; st < touched.length; st++) if (touched[st]) decide(st);
+
+        counties = after;
+        CountyDataset.update(countyPath, before, after, rows, detected);
+        return new Update(countyFile.getName(), rows.length, statesTouched, parsed, n, false, stateEv(),
+                countyEv.clone(), System.nanoTime() - detected);
+    }
+
+    private Update reloadCounties(long detected) throws IOException {
+        CountyData before = counties;
+        CountyData after = CountyDataset.get(countyPath);
+        rebase(after);
+        CountyDataset.update(countyPath, before, after, null, detected);
+        return new Update(countyFile.getName(), after.size(), totals.states, after.size(), after.size(), true, stateEv(),
+                countyEv.clone(), System.nanoTime() - detected);
+    }
+
+    /**
+     * Takes {@code data} as the new baseline: record hashes, which row each
+     * record loaded into, county-built totals and winners.
+     */
+    private void rebase(CountyData data) throws IOException {
+        counties = data;
+        int n = 0, row = 0;
+        long[] hashes = new long[Math.max(16, data.size())];
+        int[] rows = new int[hashes.length];
+        try (CsvTokenizer csv = new CsvTokenizer(countyFile)) {
+            header = csv.next() ? CountyData.Columns.read(csv, countyFile) : null;
+            while (header != null && csv.next()) {
+                if (n == hashes.length) {
+                    hashes = Arrays.copyOf(hashes, n * 2);
+                    rows = Arrays.copyOf(rows, n * 2);
+                }
+                hashes[n] = csv.recordHash();
+                // Rows are the accepted records in file order
+                boolean kept = row < data.size() && header.accepts(csv) && header.key(csv, data.states) == data.key(row);
+                rows[n++] = kept ? row++ : -1;
+            }
+        }
+        recordHash = hashes;
+        rowOfRecord = rows;
+        records = row == data.size() ? n : -1;
+
+        totals = CountyAggregator.parallel(data);
+        stateWinner = new int[totals.states];
+        countyEv = new int[data.candidates()];
+        Arrays.fill(stateWinner, TallyEngine.TIE);
+        for (int st = 0; st < totals.states; st++) decide(st);
+    }
+
+    /** Re-decides one state from the county-built totals and moves its electoral votes if it changed hands. */
+    private void decide(int st) {
+        long[] v = new long[totals.votes.length];
+        for (int c = 0; c < v.length; c++) v[c] = totals.votes[c][st];
+        int before = stateWinner[st];
+        int after = TallyEngine.leader(v);
+        if (after == before) return;
+        if (before != TallyEngine.TIE) countyEv[before] -= votes.electoral(st);
+        if (after != TallyEngine.TIE) countyEv[after] += votes.electoral(st);
+        stateWinner[st] = after;
+    }
+
+    // ----------------------------- STATE FILES -----------------------------
+    private Update ingestVoteResults(long detected) throws IOException {
+        VoteStore fresh = new VoteStore(votes.ids());
+        VoteResultsXlsx.load(voteResultsFile, fresh, streamXlsx);
+
+        // Applied as one batch: readers on other threads see all of it or none
+        int changed = 0;
+        votes.lock().writeLock().lock();
+        try {
+            int[] column = new int[fresh.candidates()];
+            for (int c = 0; c < column.length; c++) column[c] = votes.candidate(fresh.candidateName(c));
+            for (int st : fresh.reportedOrdinals()) {
+                votes.state(fresh.id(st));
+                boolean differs = !votes.reported(st);
+                for (int c = 0; c < column.length && !differs; c++) differs = votes.votes(column[c], st) != fresh.votes(c, st);
+                if (!differs) continue;
+                for (int c = 0; c < column.length; c++) votes.setVotes(st, column[c], fresh.votes(c, st));
+                changed++;
+            }
+        } finally {
+            votes.lock().writeLock().unlock();
+        }
+        return new Update(voteResultsFile.getName(), changed, changed, fresh.reportedCount(), fresh.reportedCount(),
+                false, stateEv(), countyEv.clone(), System.nanoTime() - detected);
+    }
+
+    private Update ingestStateInfo(long detected) throws IOException {
+        VoteStore fresh = new VoteStore(votes.ids());
+        int rows = StateInfoCsv.load(stateInfoFile, fresh);
+
+        int changed = 0;
+        votes.lock().writeLock().lock();
+        try {
+            for (int st = 0; st < fresh.size(); st++) {
+                if (fresh.electoral(st) == votes.electoral(st)) continue;
+                votes.setElectoral(fresh.id(st), fresh.electoral(st));
+                changed++;
+            }
+        } finally {
+            votes.lock().writeLock().unlock();
+        }
+        // Electoral weights moved: re-award every county-built state
+        Arrays.fill(countyEv, 0);
+        for (int st = 0; st < totals.states; st++) {
+            if (stateWinner[st] != TallyEngine.TIE) countyEv[stateWinner[st]] += votes.electoral(st);
+        }
+        return new Update(stateInfoFile.getName(), changed, changed, rows, rows, false, stateEv(),
+                countyEv.clone(), System.nanoTime() - detected);
+    }
+
+    private int[] stateEv() {
+        return votes.electoralTotals(votes.tally());
+    }
+
+    // ----------------------------- LIVE STATE -----------------------------
+    public CountyData counties()          { return counties; }
+    public CountyAggregator.Totals totals() { return totals; }
+}
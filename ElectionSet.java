@@ -0,0 +1,161 @@
+import java.io.*;
+import java.util.*;
+
+/**
+ * Several elections' county results held side by side: past cycles, or
+ * scenarios of the same night.
+ *
+ * Every election is a {@link CountyData} table interned into the same two
+ * dictionaries: state IDs in an {@link IdDictionary} (by default
+ * {@link CountyDataset#states()}, so ordinals also line up with the
+ * {@link VoteStore}), and counties by FIPS code (state and name for rows
+ * without one) in a primitive key-to-ordinal table here. An election adds
+ * one int per row mapping it to its county ordinal, grouped CSR-style by
+ * ordinal so that a county's rows, one or many precincts, form one slice.
+ *
+ * When an election lists the same counties in the same order as the first
+ * one, its names, FIPS, state and lat/lng columns are replaced by the first
+ * election's arrays; otherwise it gets a names column of its own holding
+ * the first copy of each county name. Either way each further election
+ * costs its vote columns, not another copy of every county string. The
+ * table passed in is never written to: it may be shared, for instance
+ * through {@link CountyDataset}.
+ */
+public final class ElectionSet {
+
+    /** One election of the set; rows are {@link #data}'s, counties are the set's ordinals. */
+    public static final class Election {
+        public final String label;
+        public final CountyData data;
+        final int[] county;      // [row] county ordinal
+        final int[] start;       // [ordinal + 1] offsets into rows, for the ordinals known when it was added
+        final int[] rows;        // row indexes grouped by county ordinal
+
+        Election(String label, CountyData data, int[] county, int counties) {
+            this.label = label;
+            this.data = data;
+            this.county = county;
+
+            // Counting sort of rows by county ordinal
+            start = new int[counties + 1];
+            for (int k : county) start[k + 1]++;
+            for (int k = 0; k < counties; k++) start[k + 1] += start[k];
+            rows = new int[county.length];
+            int[] fill = Arrays.copyOf(start, counties);
+            for (int j = 0; j < county.length; j++) rows[fill[county[j]]++] = j;
+        }
+
+        /** County ordinal of row {@code j}. */
+        public int county(int row) { return county[row]; }
+
+        /** Rows of county {@code k} are {@code rowAt(i)} for i in [rowsFrom(k), rowsTo(k)); empty if it is not in this election. */
+        public int rowsFrom(int k) { return k + 1 < start.length ? start[k] : 0; }
+        public int rowsTo(int k)   { return k + 1 < start.length ? start[k + 1] : 0; }
+        public int rowAt(int i)    { return rows[i]; }
+
+        @Override
+        public String toString() { return label; }
+    }
+
+    private final IdDictionary states;
+    private final List<Election> elections = new ArrayList<>();
+    private final Map<String, Election> byLabel = new HashMap<>();
+
+    // County dictionary: open addressing from row key (see CountyData#key) to ordinal + 1
+    private long[] keys = new long[1024];
+    private int[] slots = new int[1024];
+    private int counties;
+    private String[] countyName = new String[256];
+    private int[] countyState = new int[256];
+
+    public ElectionSet() {
+        this(CountyDataset.states());
+    }
+
+    public ElectionSet(IdDictionary states) {
+        this.states = states;
+    }
+
+    // ----------------------------- ELECTIONS -----------------------------
+    /** Loads a county CSV as election {@code label}. */
+    public Election load(String label, File csv) throws IOException {
+        return add(label, CountyData.load(csv, states));
+    }
+
+    /** Adds loaded counties as election {@code label}; their states must come from this set's dictionary. */
+    public synchronized Election add(String label, CountyData data) {
+        if (data.states != states) throw new IllegalArgumentException(label + ": counties use another state dictionary");
+        if (byLabel.containsKey(label)) throw new IllegalArgumentException("Election already loaded: " + label);
+
+        if (!elections.isEmpty()) data = data.sharingGeography(elections.get(0).data);
+        int[] county = new int[data.size()];
+        String[] names = data.names;
+        for (int j = 0; j < data.size(); j++) {
+            int k = intern(data.key(j), data.names[j], data.state[j]);
+            county[j] = k;
+            if (names[j] != countyName[k] && names[j].equals(countyName[k])) {
+                if (names == data.names) names = names.clone();
+                names[j] = countyName[k];
+            }
+        }
+        if (names != data.names) data = data.withNames(names);
+        Election e = new Election(label, data, county, counties);
+        elections.add(e);
+        byLabel.put(label, e);
+        return e;
+    }
+
+    /** Election {@code label}, or null if none was added under it. */
+    public synchronized Election get(String label) { return byLabel.get(label); }
+
+    public synchronized List<Election> elections() { return List.copyOf(elections); }
+    public synchronized int size()                 { return elections.size(); }
+
+    // ----------------------------- COUNTIES -----------------------------
+    public IdDictionary states()                      { return states; }
+    /** Distinct counties over every election so far; ordinals are 0 .. counties() - 1. */
+    public synchronized int counties()                { return counties; }
+    public synchronized String countyName(int k)      { return countyName[k]; }
+    public synchronized int countyState(int k)        { return countyState[k]; }
+    /** State ordinal of every county, live array: valid for ordinals below {@link #counties()} at the time of the call. */
+    synchronized int[] countyStates()                 { return countyState; }
+
+    private int intern(long key, String name, int state) {
+        int mask = keys.length - 1;
+        for (int i = slot(key, mask); ; i = (i + 1) & mask) {
+            if (slots[i] == 0) {
+                if (counties == countyName.length) {
+                    countyName = Arrays.copyOf(countyName, counties * 2);
+                    countyState = Arrays.copyOf(countyState, counties * 2);
+                }
+                keys[i] = key;
+                slots[i] = counties + 1;
+                countyName[counties] = name;
+                countyState[counties] = state;
+                if (++counties * 2 > keys.length) rehash();
+                return counties - 1;
+            }
+            if (keys[i] == key) return slots[i] - 1;
+        }
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        int[] oldSlots = slots;
+        keys = new long[oldKeys.length * 2];
+        slots = new int[oldKeys.length * 2];
+        int mask = keys.length - 1;
+        for (int o = 0; o < oldKeys.length; o++) {
+            if (oldSlots[o] == 0) continue;
+            int i = slot(oldKeys[o], mask);
+            while (slots[i] != 0) i = (i + 1) & mask;
+            keys[i] = oldKeys[o];
+            slots[i] = oldSlots[o];
+        }
+    }
+
+    private static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,37 @@
+import java.util.*;
+
+/**
+ * Maps string IDs (state codes, county FIPS, ...) to dense int ordinals.
+ * Ordinals are handed out in first-seen order and never change, so they
+ * can index straight into primitive columns.
+ */
+public class IdDictionary {
+
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private String[] ids = new String[64];
+    private int size;
+
+    /** Returns the ordinal for {@code id}, assigning the next one if it is new. */
+    public synchronized int intern(String id) {
+        Integer existing = ordinals.get(id);
+        if (existing != null) return existing;
+        if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+        ids[size] = id;
+        ordinals.put(id, size);
+        return size++;
+    }
+
+    /** Ordinal for {@code id}, or -1 if it has never been interned. */
+    public synchronized int ordinal(String id) {
+        Integer existing = ordinals.get(id);
+        return existing == null ? -1 : existing;
+    }
+
+    public synchronized String id(int ordinal) {
+        return ids[ordinal];
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+}
@@ -0,0 +1,103 @@
+import java.util.Locale;
+
+/**
+ * Lat/lng to plane coordinates for the county map.
+ *
+ * Plane x grows east and y grows south, as on screen. The units are the
+ * projection's own; {@link ProjectedCounties} fits them to the viewport, so a
+ * projection only has to get shapes right, not sizes. Points are projected
+ * in bulk, once per dataset, which is the only place the map does trig.
+ *
+ * <pre>
+ *   -Dvizzard.map.projection=equirectangular   lng/lat as x/y; lines up with data/us_map.jpg (default)
+ *   -Dvizzard.map.projection=albers            Albers equal-area conic, as on USGS maps of the lower 48
+ * </pre>
+ */
+public abstract class MapProjection {
+
+    /** Longitude and latitude as x and -y: the projection of the base map image. */
+    public static final MapProjection EQUIRECTANGULAR = new MapProjection("equirectangular") {
+        @Override
+        public void project(double[] lat, double[] lon, int n, double[] x, double[] y) {
+            for (int j = 0; j < n; j++) {
+                x[j] = lon[j];
+                y[j] = -lat[j];
+            }
+        }
+
+        @Override public double unitsPerDegree() { return 1; }
+        @Override public boolean drawsBaseMap()  { return true; }
+    };
+
+    /** Albers equal-area conic with the USGS parallels for the conterminous US (29.5°N, 45.5°N, centred on 96°W). */
+    public static final MapProjection ALBERS = new Albers(29.5, 45.5, 23, -96);
+
+    private final String name;
+
+    MapProjection(String name) {
+        this.name = name;
+    }
+
+    public String name() { return name; }
+
+    /** Projects {@code lat[0..n), lon[0..n)} (degrees) into {@code x, y}. */
+    public abstract void project(double[] lat, double[] lon, int n, double[] x, double[] y);
+
+    /** Rough plane units per degree of latitude; sizes the spatial index cells. */
+    public abstract double unitsPerDegree();
+
+    /** Whether the equirectangular base map image lines up under this projection. */
+    public abstract boolean drawsBaseMap();
+
+    /** Projection called {@code name}, case-insensitive. */
+    public static MapProjection forName(String name) {
+        switch (name.trim().toLowerCase(Locale.ROOT)) {
+            case "equirectangular": case "plate-carree": case "latlng": return EQUIRECTANGULAR;
+            case "albers": case "albers-usa": return ALBERS;
+            default: throw new IllegalArgumentException("Unknown map projection: " + name);
+        }
+    }
+
+    /** Projection named by {@code -Dvizzard.map.projection}, equirectangular if unset or unknown. */
+    static MapProjection fromSystemProperty() {
+        String name = System.getProperty("vizzard.map.projection");
+        if (name == null || name.isBlank()) return EQUIRECTANGULAR;
+        try {
+            return forName(name);
+        } catch (IllegalArgumentException e) {
+            System.out.println("⚠️  " + e.getMessage() + "; using equirectangular");
+            return EQUIRECTANGULAR;
+        }
+    }
+
+    @Override
+    public String toString() { return name; }
+
+    // ----------------------------- ALBERS -----------------------------
+    /** Spherical Albers equal-area conic (Snyder, Map Projections: A Working Manual, eq. 14-1 to 14-4). */
+    static final class Albers extends MapProjection {
+        private final double n, c, rho0, lon0;
+
+        Albers(double parallel1, double parallel2, double originLat, double originLon) {
+            super("albers");
+            double p1 = Math.toRadians(parallel1), p2 = Math.toRadians(parallel2);
+            n = (Math.sin(p1) + Math.sin(p2)) / 2;
+            c = Math.cos(p1) * Math.cos(p1) + 2 * n * Math.sin(p1);
+            rho0 = Math.sqrt(c - 2 * n * Math.sin(Math.toRadians(originLat))) / n;
+            lon0 = Math.toRadians(originLon);
+        }
+
+        @Override
+        public void project(double[] lat, double[] lon, int count, double[] x, double[] y) {
+            for (int j = 0; j < count; j++) {
+                double rho = Math.sqrt(c - 2 * n * Math.sin(Math.toRadians(lat[j]))) / n;
+                double theta = n * (Math.toRadians(lon[j]) - lon0);
+                x[j] = rho * Math.sin(theta);
+                y[j] = rho * Math.cos(theta) - rho0;    // northing, negated
+            }
+        }
+
+        @Override public double unitsPerDegree() { return Math.PI / 180; }
+        @Override public boolean drawsBaseMap()  { return false; }
+    }
+}
@@ -0,0 +1,273 @@
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.*;
+
+/**
+ * Process-wide counters, timers and latency histograms for the hot paths:
+ * loaders, aggregations, map frames, replay and live ingest.
+ *
+ * Metrics are created once by name, usually into a {@code static final}
+ * field, and then recorded without locks or allocation: counters are
+ * {@link LongAdder}s, histograms bump one slot of a log-linear bucket array
+ * (HDR style, under 2% error at any magnitude). Everything records whether
+ * or not anyone reads it. {@link #start()} publishes each metric as a JMX
+ * MBean under {@code TheVizzard:type=Metrics} and appends a dump of all of
+ * them to a log file every minute and at exit.
+ *
+ * <pre>
+ *   -Dvizzard.metrics.log=logs/metrics.log   dump file; "off" for none
+ *   -Dvizzard.metrics.interval=60            seconds between dumps
+ * </pre>
+ */
+public final class Metrics {
+
+    public static final String DEFAULT_LOG = "logs/metrics.log";
+    private static final String DOMAIN = "TheVizzard";
+
+    private static final Map<String, Object> REGISTRY = new ConcurrentHashMap<>();
+    private static MBeanServer jmx;     // set by start(); later metrics register as they are created
+
+    private Metrics() { }
+
+    // ----------------------------- METRIC TYPES -----------------------------
+    public interface CounterMBean {
+        long getCount();
+    }
+
+    public interface HistogramMBean {
+        long getCount();
+        double getMean();
+        long getP50();
+        long getP90();
+        long getP99();
+        long getMax();
+    }
+
+    public interface TimerMBean {
+        long getCount();
+        double getTotalMillis();
+        double getMeanMillis();
+        double getP50Millis();
+        double getP90Millis();
+        double getP99Millis();
+        double getMaxMillis();
+    }
+
+    /** Monotonic count of events or units (rows, bytes). */
+    public static final class Counter implements CounterMBean {
+        private final LongAdder count = new LongAdder();
+
+        public void increment()   { count.increment(); }
+        public void add(long n)   { count.add(n); }
+        public long getCount()    { return count.sum(); }
+    }
+
+    /**
+     * Distribution of non-negative longs. Values below 64 get a bucket each;
+     * above that every power of two is split into 64 equal buckets, so a
+     * percentile is off by at most 1/64 of its value.
+     */
+    public static final class Histogram implements HistogramMBean {
+        private static final int SUB_BITS = 6, SUB = 1 << SUB_BITS;
+        private static final int BUCKETS = SUB * (64 - SUB_BITS + 1);
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);   // the count is their sum
+        private final LongAdder sum = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+
+        public void record(long value) {
+            if (value < 0) value = 0;
+            buckets.incrementAndGet(bucket(value));
+            sum.add(value);
+            if (value > max.get()) max.accumulateAndGet(value, Math::max);
+        }
+
+        static int bucket(long v) {
+            if (v < SUB) return (int) v;
+            int shift = 63 - Long.numberOfLeadingZeros(v) - SUB_BITS;
+            return SUB + shift * SUB + (int) ((v >>> shift) - SUB);
+        }
+
+        /** Largest value that falls in bucket {@code b}. */
+        static long highest(int b) {
+            if (b < SUB) return b;
+            int shift = (b - SUB) / SUB;
+            long mantissa = SUB + (b - SUB) % SUB;
+            return ((mantissa + 1) << shift) - 1;
+        }
+
+        /** Value at quantile {@code q} (0..1), reported as its bucket's upper bound. */
+        public long percentile(double q) {
+            long total = getCount();
+            if (total == 0) return 0;
+            long target = Math.max(1, (long) Math.ceil(q * total)), seen = 0;
+            for (int b = 0; b < BUCKETS; b++) {
+                seen += buckets.get(b);
+                if (seen >= target) return Math.min(highest(b), max.get());
+            }
+            return max.get();
+        }
+
+        public long getCount() {
+            long total = 0;
+            for (int b = 0; b < BUCKETS; b++) total += buckets.get(b);
+            return total;
+        }
+
+        public long getSum()    { return sum.sum(); }
+        public double getMean() { long n = getCount(); return n == 0 ? 0 : (double) sum.sum() / n; }
+        public long getP50()    { return percentile(0.50); }
+        public long getP90()    { return percentile(0.90); }
+        public long getP99()    { return percentile(0.99); }
+        public long getMax()    { return max.get(); }
+    }
+
+    /** Histogram of durations in nanoseconds, read back in milliseconds. */
+    public static final class Timer implements TimerMBean {
+        private final Histogram nanos = new Histogram();
+
+        public void record(long elapsedNanos) { nanos.record(elapsedNanos); }
+
+        /** Records the time since {@code startNanos} (from {@link System#nanoTime()}) and returns it. */
+        public long since(long startNanos) {
+            long elapsed = System.nanoTime() - startNanos;
+            nanos.record(elapsed);
+            return elapsed;
+        }
+
+        public long getCount()          { return nanos.getCount(); }
+        public double getTotalMillis()  { return nanos.getSum() / 1e6; }
+        public double getMeanMillis()   { return nanos.getMean() / 1e6; }
+        public double getP50Millis()    { return nanos.getP50() / 1e6; }
+        public double getP90Millis()    { return nanos.getP90() / 1e6; }
+        public double getP99Millis()    { return nanos.getP99() / 1e6; }
+        public double getMaxMillis()    { return nanos.getMax() / 1e6; }
+    }
+
+    // ----------------------------- REGISTRY -----------------------------
+    public static Counter counter(String name)     { return get(name, Counter.class, CounterMBean.class); }
+    public static Histogram histogram(String name) { return get(name, Histogram.class, HistogramMBean.class); }
+    public static Timer timer(String name)         { return get(name, Timer.class, TimerMBean.class); }
+
+    private static <T> T get(String name, Class<T> type, Class<?> view) {
+        Object m = REGISTRY.get(name);
+        if (m == null) m = create(name, type, view);
+        if (!type.isInstance(m)) {
+            throw new IllegalArgumentException(name + " is a " + m.getClass().getSimpleName() + ", not a " + type.getSimpleName());
+        }
+        return type.cast(m);
+    }
+
+    private static synchronized Object create(String name, Class<?> type, Class<?> view) {
+        Object m = REGISTRY.get(name);
+        if (m != null) return m;
+        try {
+            m = type.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+        REGISTRY.put(name, m);
+        if (jmx != null) register(name, m, view);
+        return m;
+    }
+
+    /**
+     * A load of {@code source} finished: its time, rows and bytes, plus the
+     * rows-per-second of this load as its own histogram.
+     */
+    public static void loaded(String source, long rows, long bytes, long nanos) {
+        timer("load." + source).record(nanos);
+        counter("load." + source + ".rows").add(rows);
+        counter("load." + source + ".bytes").add(bytes);
+        if (nanos > 0) histogram("load." + source + ".rowsPerSec").record(rows * 1_000_000_000L / nanos);
+    }
+
+    /** {@code n} rows of {@code source} were skipped for {@code reason} (e.g. "bad-lat"). */
+    public static void rejected(String source, String reason, long n) {
+        if (n > 0) counter("load." + source + ".rejected." + reason).add(n);
+    }
+
+    // ----------------------------- PUBLISHING -----------------------------
+    /**
+     * Publishes every metric, current and future, over JMX and starts the
+     * periodic log dump. Safe to call more than once.
+     */
+    public static synchronized void start() {
+        if (jmx != null) return;
+        jmx = ManagementFactory.getPlatformMBeanServer();
+        for (Map.Entry<String, Object> e : REGISTRY.entrySet()) register(e.getKey(), e.getValue(), viewOf(e.getValue()));
+
+        String log = System.getProperty("vizzard.metrics.log", DEFAULT_LOG);
+        if (log.equalsIgnoreCase("off")) return;
+        File file = new File(log);
+        long interval = Long.getLong("vizzard.metrics.interval", 60L);
+        ScheduledExecutorService dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metrics-dump");
+            t.setDaemon(true);
+            return t;
+        });
+        dumper.scheduleAtFixedRate(() -> dump(file), interval, interval, TimeUnit.SECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> dump(file), "metrics-final-dump"));
+    }
+
+    private static Class<?> viewOf(Object m) {
+        if (m instanceof Counter) return CounterMBean.class;
+        if (m instanceof Timer) return TimerMBean.class;
+        return HistogramMBean.class;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static void register(String name, Object metric, Class<?> view) {
+        try {
+            ObjectName id = new ObjectName(DOMAIN + ":type=Metrics,name=" + ObjectName.quote(name));
+            if (!jmx.isRegistered(id)) jmx.registerMBean(new StandardMBean(metric, (Class) view), id);
+        } catch (JMException e) {
+            System.out.println("⚠️  Metric " + name + " not published over JMX: " + e.getMessage());
+        }
+    }
+
+    /** Appends one line per metric, sorted by name, to {@code file}. */
+    static void dump(File file) {
+        File dir = file.getAbsoluteFile().getParentFile();
+        if (dir != null) dir.mkdirs();
+        try (PrintStream out = new PrintStream(new FileOutputStream(file, true), false, "UTF-8")) {
+            report(out);
+        } catch (IOException e) {
+            System.out.println("⚠️  Could not write metrics to " + file + ": " + e.getMessage());
+        }
+    }
+
+    /** Every metric with data, one line each. */
+    public static void report(PrintStream out) {
+        out.println("----- metrics " + LocalDateTime.now().withNano(0) + " -----");
+        for (String name : new TreeSet<>(REGISTRY.keySet())) {
+            Object m = REGISTRY.get(name);
+            if (m instanceof Counter) {
+                Counter c = (Counter) m;
+                if (c.getCount() > 0) out.printf(Locale.ROOT, "%-44s %,d%n", name, c.getCount());
+            } else if (m instanceof Timer) {
+                Histogram t = ((Timer) m).nanos;
+                if (t.getCount() > 0) out.printf(Locale.ROOT, "%-44s n=%,d total=%s mean=%s p50=%s p90=%s p99=%s max=%s%n",
+                        name, t.getCount(), duration(t.getSum()), duration(t.getMean()),
+                        duration(t.getP50()), duration(t.getP90()), duration(t.getP99()), duration(t.getMax()));
+            } else {
+                Histogram h = (Histogram) m;
+                if (h.getCount() > 0) out.printf(Locale.ROOT, "%-44s n=%,d mean=%.1f p50=%d p90=%d p99=%d max=%d%n",
+                        name, h.getCount(), h.getMean(), h.getP50(), h.getP90(), h.getP99(), h.getMax());
+            }
+        }
+    }
+
+    private static String duration(double nanos) {
+        if (nanos < 1e3) return String.format(Locale.ROOT, "%.0fns", nanos);
+        if (nanos < 1e6) return String.format(Locale.ROOT, "%.1fµs", nanos / 1e3);
+        if (nanos < 1e9) return String.format(Locale.ROOT, "%.2fms", nanos / 1e6);
+        return String.format(Locale.ROOT, "%.2fs", nanos / 1e9);
+    }
+}
@@ -0,0 +1,257 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Monte Carlo outcomes for the votes still uncounted at a cutoff time.
+ *
+ * Counties whose return time is at or before the cutoff count as reported
+ * and keep their votes. Every other county is expected to cast
+ * {@code population * VoteCast} votes. Its share for the first candidate
+ * column is the state's counted two-party share, shifted by how far the
+ * county's {@code factor} lean sits from the counted counties' average (the
+ * national figures stand in while a state has nothing counted).
+ *
+ * Each run draws a national swing and one swing per state, which move all
+ * of a state's uncounted counties together. County share noise and turnout
+ * noise are independent on top of those swings, so their sum per state is
+ * drawn as one normal with the exact mean and variance of the county terms,
+ * precomputed here. A run therefore costs O(states) whatever the number of
+ * counties or precincts.
+ *
+ * The model is of a two-candidate race, which is what {@code factor} leans
+ * between, so the county table must have exactly two candidate columns; a
+ * third would have no share to draw. Runs are split across workers, each
+ * with its own {@link SplittableRandom} and scratch arrays; the per-run loop
+ * allocates nothing.
+ */
+public final class MonteCarlo {
+
+    /** Standard deviation of the nationwide swing in two-party share. */
+    static final double NATIONAL_SWING = 0.03;
+    /** Standard deviation of each state's own swing, on top of the national one. */
+    static final double STATE_SWING = 0.03;
+    /** Standard deviation of one uncounted county's share around its expected share. */
+    static final double COUNTY_NOISE = 0.08;
+    /** Relative standard deviation of one uncounted county's turnout. */
+    static final double TURNOUT_NOISE = 0.10;
+
+    private static final Metrics.Timer RUN = Metrics.timer("simulate.montecarlo");
+    private static final Metrics.Counter RUNS = Metrics.counter("simulate.montecarlo.runs");
+
+    /** Outcome counts over all runs; candidate 0 and 1 are the data's first two candidate columns. */
+    public static final class Result {
+        public final long runs;
+        public final long[] stateWins;      // [state] runs won by candidate 0
+        public final long[] evHistogram;    // [ev] runs in which candidate 0 took exactly ev
+        public final long[] tippingPoint;   // [state] runs in which the state decided the majority
+        public long wins0, wins1, noMajority, popularWins0;
+
+        Result(long runs, int states, int totalEv) {
+            this.runs = runs;
+            this.stateWins = new long[states];
+            this.evHistogram = new long[totalEv + 1];
+            this.tippingPoint = new long[states];
+        }
+
+        void add(Result o) {
+            for (int s = 0; s < stateWins.length; s++) {
+                stateWins[s] += o.stateWins[s];
+                tippingPoint[s] += o.tippingPoint[s];
+            }
+            for (int e = 0; e < evHistogram.length; e++) evHistogram[e] += o.evHistogram[e];
+            wins0 += o.wins0;
+            wins1 += o.wins1;
+            noMajority += o.noMajority;
+            popularWins0 += o.popularWins0;
+        }
+
+        /** Candidate 0's electoral votes at the given quantile (0..1) of the runs. */
+        public int evQuantile(double q) {
+            long target = (long) Math.ceil(q * runs), seen = 0;
+            for (int e = 0; e < evHistogram.length; e++) {
+                seen += evHistogram[e];
+                if (seen >= Math.max(1, target)) return e;
+            }
+            return evHistogram.length - 1;
+        }
+
+        public double evMean() {
+            double sum = 0;
+            for (int e = 0; e < evHistogram.length; e++) sum += (double) e * evHistogram[e];
+            return runs == 0 ? 0 : sum / runs;
+        }
+    }
+
+    private final int states;
+    private final int[] ev;                  // [state]
+    private final int totalEv, majority;
+    private final double[] countedMargin;    // [state] candidate 0 minus candidate 1, counted votes
+    private final double[] expectedMargin;   // [state] same, uncounted votes at expected shares
+    private final double[] uncounted;        // [state] expected uncounted two-party votes
+    private final double[] noise;            // [state] std dev of the summed county and turnout noise
+    private final double[] scale;            // [state] 1 / expected two-party votes, for margin shares
+    private final int countedCounties, uncountedCounties;
+
+    /**
+     * Model for {@code counties} with everything reported by {@code cutoff}
+     * (election time as in {@link CountyData#returnTime}) counted. Electoral
+     * votes come from {@code store}, indexed by the same state ordinals.
+     */
+    public MonteCarlo(CountyData counties, VoteStore store, long cutoff) {
+        if (counties.candidates() != 2) {
+            throw new IllegalArgumentException("The simulation models a two-candidate race; the counties have "
+                    + counties.candidates() + " candidate columns");
+        }
+        states = counties.states.size();
+        ev = new int[states];
+        int total = 0;
+        for (int s = 0; s < states; s++) total += ev[s] = store.electoral(s);
+        totalEv = total;
+        majority = total / 2 + 1;
+
+        countedMargin = new double[states];
+        expectedMargin = new double[states];
+        uncounted = new double[states];
+        noise = new double[states];
+        scale = new double[states];
+
+        // Counted two-party votes and vote-weighted factor, per state and nationally
+        double[] a = new double[states], b = new double[states], lean = new double[states];
+        double na = 0, nb = 0, nLean = 0;
+        long[] va = counties.votes[0], vb = counties.votes[1];
+        boolean[] counted = new boolean[counties.size()];
+        int reported = 0;
+        for (int j = 0; j < counties.size(); j++) {
+            long t = counties.returnTime[j];
+            if (t == CountyData.NO_TIME || t > cutoff) continue;
+            counted[j] = true;
+            reported++;
+            int s = counties.state[j];
+            a[s] += va[j];
+            b[s] += vb[j];
+            lean[s] += counties.factor[j] * (va[j] + vb[j]);
+            na += va[j];
+            nb += vb[j];
+            nLean += counties.factor[j] * (va[j] + vb[j]);
+        }
+        countedCounties = reported;
+        uncountedCounties = counties.size() - reported;
+        double nationalShare = na + nb > 0 ? na / (na + nb) : 0.5;
+        double nationalLean = na + nb > 0 ? nLean / (na + nb) : 0.0;
+
+        double sc2 = COUNTY_NOISE * COUNTY_NOISE, st2 = TURNOUT_NOISE * TURNOUT_NOISE;
+        double[] variance = new double[states];
+        for (int j = 0; j < counties.size(); j++) {
+            if (counted[j]) continue;
+            int s = counties.state[j];
+            double expected = counties.population[j] * counties.voteCast[j];
+            if (!(expected > 0)) continue;
+            boolean any = a[s] + b[s] > 0;
+            double base = any ? a[s] / (a[s] + b[s]) : nationalShare;
+            double baseLean = any ? lean[s] / (a[s] + b[s]) : nationalLean;
+            double share = Math.min(0.99, Math.max(0.01, base + (counties.factor[j] - baseLean) / 100.0));
+            double m = 2 * share - 1;
+            expectedMargin[s] += expected * m;
+            uncounted[s] += expected;
+            // Var of E(1 + t z1)(m + 2 c z2) for independent unit normals z1, z2
+            variance[s] += expected * expected * (st2 * m * m + 4 * sc2 * (1 + st2));
+        }
+        for (int s = 0; s < states; s++) {
+            countedMargin[s] = a[s] - b[s];
+            noise[s] = Math.sqrt(variance[s]);
+            double votes = a[s] + b[s] + uncounted[s];
+            scale[s] = votes > 0 ? 1.0 / votes : 0.0;
+        }
+    }
+
+    public int states()            { return states; }
+    public int totalEv()           { return totalEv; }
+    public int majority()          { return majority; }
+    public int countedCounties()   { return countedCounties; }
+    public int uncountedCounties() { return uncountedCounties; }
+
+    // ----------------------------- SIMULATION -----------------------------
+    /** Runs on the common fork/join pool, one worker per thread. */
+    public Result run(long runs, long seed) {
+        return run(runs, seed, ForkJoinPool.commonPool());
+    }
+
+    /** Splits {@code runs} across the pool's threads; the same seed and pool size give the same result. */
+    public Result run(long runs, long seed, ForkJoinPool pool) {
+        long start = System.nanoTime();
+        int workers = (int) Math.max(1, Math.min(pool.getParallelism(), runs));
+        SplittableRandom root = new SplittableRandom(seed);
+        List<Callable<Result>> tasks = new ArrayList<>();
+        for (int w = 0; w < workers; w++) {
+            long share = runs / workers + (w < runs % workers ? 1 : 0);
+            SplittableRandom random = root.split();
+            tasks.add(() -> simulate(share, random));
+        }
+
+        Result total = new Result(runs, states, totalEv);
+        try {
+            if (workers == 1) total.add(simulate(runs, root.split()));
+            else for (Future<Result> f : pool.invokeAll(tasks)) total.add(f.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Simulation interrupted");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+        RUN.since(start);
+        RUNS.add(runs);
+        return total;
+    }
+
+    /** One worker's share of the runs. */
+    private Result simulate(long runs, SplittableRandom random) {
+        Result r = new Result(runs, states, totalEv);
+        long[] keys = new long[states];          // margin share of candidate 0, sortable, with the state in the low bits
+        for (long i = 0; i < runs; i++) {
+            double national = NATIONAL_SWING * random.nextGaussian();
+            double popular = 0;
+            int ev0 = 0, evDecided = 0, n = 0;
+            for (int s = 0; s < states; s++) {
+                if (scale[s] == 0) continue;
+                double swing = national + STATE_SWING * random.nextGaussian();
+                double margin = countedMargin[s] + expectedMargin[s] + 2 * swing * uncounted[s]
+                        + noise[s] * random.nextGaussian();
+                popular += margin;
+                if (ev[s] == 0) continue;
+                if (margin > 0) {
+                    ev0 += ev[s];
+                    r.stateWins[s]++;
+                }
+                if (margin != 0) evDecided += ev[s];
+                keys[n++] = sortable((float) (margin * scale[s])) << 32 | s;
+            }
+            r.evHistogram[ev0]++;
+            if (popular > 0) r.popularWins0++;
+
+            int ev1 = evDecided - ev0;
+            if (ev0 >= majority) r.wins0++;
+            else if (ev1 >= majority) r.wins1++;
+            else { r.noMajority++; continue; }
+
+            // Tipping point: walking from the winner's safest state, the one that reaches the majority
+            Arrays.sort(keys, 0, n);
+            int sum = 0;
+            boolean first = ev0 >= majority;
+            for (int k = 0; k < n; k++) {
+                int s = (int) (first ? keys[n - 1 - k] : keys[k]);
+                sum += ev[s];
+                if (sum >= majority) {
+                    r.tippingPoint[s]++;
+                    break;
+                }
+            }
+        }
+        return r;
+    }
+
+    /** Float bits reordered so that signed int comparison matches float order. */
+    private static long sortable(float f) {
+        int bits = Float.floatToIntBits(f);
+        return bits ^ ((bits >> 31) & 0x7FFFFFFF);
+    }
+}
@@ -0,0 +1,207 @@
+import java.util.*;
+
+/**
+ * County positions under one {@link MapProjection}, and the screen frames
+ * fitted from them.
+ *
+ * Every county is projected once, into plane coordinates kept in primitive
+ * arrays alongside a {@link CountyGrid} over them; the per-state plane bounds
+ * come out of the same pass. A {@link Frame} is the affine fit of those
+ * coordinates to one viewport, either the whole country or one state's
+ * counties, plus each county's screen position under it as floats. Frames
+ * are cached by (state, width, height), so repeated paints, switching focus
+ * back and forth and resizing between the same sizes reuse them; building
+ * one is a multiply-add per county, with no trig.
+ *
+ * Frames are shared, read-only arrays; the cache is synchronized so batch
+ * renders on several threads share one instance, handed out by
+ * {@link CountyDataset#projected}.
+ */
+public final class ProjectedCounties {
+
+    /** Frames kept, least recently used dropped first. */
+    static final int FRAMES = 8;
+    /** Margin around a fitted state, as a fraction of the viewport on each side. */
+    static final double PAD = 0.06;
+    /** A state is never drawn at more than this many times the national scale (single-county states). */
+    static final double MAX_STATE_FIT = 16;
+
+    // Lower 48 window: the national frame fits the counties inside it, so Alaska,
+    // Hawaii and territories do not shrink the rest of the map
+    private static final double WEST = -125, EAST = -67, SOUTH = 20, NORTH = 50;
+
+    private static final Metrics.Timer PROJECT = Metrics.timer("render.map.project");
+    private static final Metrics.Counter BUILT = Metrics.counter("render.map.frames.built");
+
+    private final CountyData counties;
+    private final MapProjection projection;
+    private final double[] x, y;                 // [county] plane coordinates
+    private final CountyGrid grid;
+    private final double[] bounds;               // [state * 4 + k] minX, minY, maxX, maxY; NaN when empty
+    private final double[] national = new double[4];
+    private final int[] everyCounty;             // identity rows, shared by national frames
+
+    private final Map<Long, Frame> frames = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Frame> eldest) {
+            return size() > FRAMES;
+        }
+    };
+
+    public ProjectedCounties(CountyData counties, MapProjection projection) {
+        long start = System.nanoTime();
+        this.counties = counties;
+        this.projection = projection;
+        int n = counties.size();
+        x = new double[n];
+        y = new double[n];
+        projection.project(counties.lat, counties.lon, n, x, y);
+        grid = new CountyGrid(counties, y, x, projection.unitsPerDegree());
+
+        int states = counties.states.size();
+        bounds = new double[states * 4];
+        Arrays.fill(bounds, Double.NaN);
+        Arrays.fill(national, Double.NaN);
+        boolean anyInWindow = false;
+        for (int j = 0; j < n; j++) {
+            double lat = counties.lat[j], lon = counties.lon[j];
+            if (lat >= SOUTH && lat <= NORTH && lon >= WEST && lon <= EAST) {
+                extend(national, 0, x[j], y[j]);
+                anyInWindow = true;
+            }
+            int s = counties.state[j];
+            if (s >= 0 && s < states) extend(bounds, s * 4, x[j], y[j]);
+        }
+        if (!anyInWindow) for (int j = 0; j < n; j++) extend(national, 0, x[j], y[j]);
+
+        everyCounty = new int[n];
+        for (int j = 0; j < n; j++) everyCounty[j] = j;
+        PROJECT.since(start);
+    }
+
+    private static void extend(double[] b, int at, double px, double py) {
+        if (Double.isNaN(b[at])) {
+            b[at] = b[at + 2] = px;
+            b[at + 1] = b[at + 3] = py;
+            return;
+        }
+        b[at]     = Math.min(b[at], px);
+        b[at + 1] = Math.min(b[at + 1], py);
+        b[at + 2] = Math.max(b[at + 2], px);
+        b[at + 3] = Math.max(b[at + 3], py);
+    }
+
+    public CountyData counties()       { return counties; }
+    public MapProjection projection()  { return projection; }
+    /** Spatial index over the plane coordinates: "lat" is plane y, "lon" plane x. */
+    public CountyGrid grid()           { return grid; }
+    public double planeX(int county)   { return x[county]; }
+    public double planeY(int county)   { return y[county]; }
+
+    /** Whether this was projected from the same coordinates as {@code data} (true across vote updates). */
+    public boolean covers(CountyData data, MapProjection p) {
+        return p == projection && data.lat == counties.lat && data.lon == counties.lon && data.state == counties.state;
+    }
+
+    // ----------------------------- FRAMES -----------------------------
+    /**
+     * Screen frame for a {@code width} x {@code height} view of {@code state}
+     * (an ordinal of the county table, or -1 for the whole country).
+     */
+    public synchronized Frame frame(int state, int width, int height) {
+        if (state < -1 || state >= counties.states.size()) state = -1;
+        long key = (long) (state + 1) << 40 | (long) width << 20 | height;
+        Frame f = frames.get(key);
+        if (f == null) {
+            f = build(state, width, height);
+            frames.put(key, f);
+            BUILT.increment();
+        }
+        return f;
+    }
+
+    private Frame build(int state, int w, int h) {
+        // National: the base map's own stretch under equirectangular, else a uniform fit
+        double sx, ox, sy, oy;
+        if (projection == MapProjection.EQUIRECTANGULAR) {
+            sx = w / (EAST - WEST);
+            ox = -WEST * sx;
+            sy = h / (NORTH - SOUTH);
+            oy = NORTH * sy;
+        } else {
+            double[] fit = fit(national, 0, w, h, 1, 0, Double.MAX_VALUE);
+            sx = sy = fit[0];
+            ox = fit[1];
+            oy = fit[2];
+        }
+        if (state < 0) return new Frame(-1, w, h, sx, ox, sy, oy, everyCounty);
+
+        // State: same aspect as the national frame, scaled to the state's counties
+        int from = grid.stateStart(state), to = grid.stateEnd(state);
+        int[] rows = new int[to - from];
+        for (int i = 0; i < rows.length; i++) rows[i] = grid.stateCounty(from + i);
+        if (rows.length > 0) {
+            double[] fit = fit(bounds, state * 4, w, h, sy / sx, PAD, MAX_STATE_FIT * sx);
+            double s = fit[0];
+            sy = s * sy / sx;
+            sx = s;
+            ox = fit[1];
+            oy = fit[2];
+        }
+        return new Frame(state, w, h, sx, ox, sy, oy, rows);
+    }
+
+    /**
+     * Scale and offsets {sx, ox, oy} that centre the plane box {@code b[at..at+4)}
+     * in a w x h view, leaving {@code pad} of it on each side; y is scaled by
+     * {@code aspect} times x, and the x scale is capped at {@code maxScale}.
+     */
+    private static double[] fit(double[] b, int at, int w, int h, double aspect, double pad, double maxScale) {
+        if (Double.isNaN(b[at])) return new double[] {1, w / 2.0, h / 2.0};
+        double dx = b[at + 2] - b[at], dy = (b[at + 3] - b[at + 1]) * aspect;
+        double uw = w * (1 - 2 * pad), uh = h * (1 - 2 * pad);
+        double s = Math.min(dx > 0 ? uw / dx : Double.MAX_VALUE, dy > 0 ? uh / dy : Double.MAX_VALUE);
+        s = Math.min(s, maxScale);
+        if (s == Double.MAX_VALUE) s = 1;
+        double ox = w / 2.0 - s * (b[at] + b[at + 2]) / 2;
+        double oy = h / 2.0 - s * aspect * (b[at + 1] + b[at + 3]) / 2;
+        return new double[] {s, ox, oy};
+    }
+
+    /**
+     * One viewport's fit: base screen = plane * s + o, before the map's own
+     * zoom and pan. {@code x[i], y[i]} is where county {@code rows[i]} lands;
+     * in the national frame {@code rows[i] == i}.
+     */
+    public final class Frame {
+        public final int state, width, height;
+        public final double sx, ox, sy, oy;
+        public final int[] rows;
+        public final float[] x, y;
+
+        Frame(int state, int width, int height, double sx, double ox, double sy, double oy, int[] rows) {
+            this.state = state;
+            this.width = width;
+            this.height = height;
+            this.sx = sx;
+            this.ox = ox;
+            this.sy = sy;
+            this.oy = oy;
+            this.rows = rows;
+            x = new float[rows.length];
+            y = new float[rows.length];
+            for (int i = 0; i < rows.length; i++) {
+                x[i] = baseX(rows[i]);
+                y[i] = baseY(rows[i]);
+            }
+        }
+
+        /** Base screen position of any county, as stored in {@link #x} and {@link #y}. */
+        public float baseX(int county) { return (float) (ProjectedCounties.this.x[county] * sx + ox); }
+        public float baseY(int county) { return (float) (ProjectedCounties.this.y[county] * sy + oy); }
+
+        /** Plane coordinates under base screen point (bx, by). */
+        public double planeXAt(double bx) { return (bx - ox) / sx; }
+        public double planeYAt(double by) { return (by - oy) / sy; }
+    }
+}
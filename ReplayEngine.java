@@ -0,0 +1,136 @@
+import java.util.*;
+
+/**
+ * Replays election night from the county "Return Date"/"Return Time" columns.
+ *
+ * County returns are taken in the time order of a {@link TimeIndex}. Stepping
+ * applies one county: its votes are added to the running state and national
+ * tallies and only that state's winner and electoral award are recomputed, so
+ * each event costs O(candidates) no matter how many counties or states there
+ * are. "Results as of 21:37" queries go straight to the index's prefix sums.
+ */
+public class ReplayEngine {
+
+    /** Applying one return in {@link #play}, listener included. */
+    private static final Metrics.Timer RETURN = Metrics.timer("replay.return");
+
+    /** Called after each county return is applied. */
+    public interface Listener {
+        void onReturn(ReplayEngine engine, int county);
+    }
+
+    private final TimeIndex index;
+    private final CountyData counties;
+    private final int candidates;
+    private final int[] electoral;       // [state ordinal]
+
+    // Live replay state
+    private int cursor;
+    private final long[][] stateVotes;   // [candidate][state ordinal]
+    private final long[] touched;        // [candidate] votes of the state the last return was in
+    private final long[] national;       // [candidate]
+    private final int[] stateWinner;     // [state ordinal], TallyEngine.TIE until a lead exists
+    private final int[] ev;              // [candidate]
+
+    /** Replays {@code index}; electoral votes come from {@code store} by state ordinal. */
+    public ReplayEngine(TimeIndex index, VoteStore store) {
+        this.index = index;
+        this.counties = index.counties();
+        this.candidates = counties.candidates();
+
+        int states = counties.states.size();
+        this.electoral = new int[states];
+        for (int s = 0; s < states; s++) electoral[s] = store.electoral(s);
+
+        this.stateVotes = new long[candidates][states];
+        this.touched = new long[candidates];
+        this.national = new long[candidates];
+        this.stateWinner = new int[states];
+        this.ev = new int[candidates];
+        reset();
+    }
+
+    // ----------------------------- STEPPING -----------------------------
+    /** Rewinds to before the first return. */
+    public void reset() {
+        cursor = 0;
+        for (long[] col : stateVotes) Arrays.fill(col, 0L);
+        Arrays.fill(national, 0L);
+        Arrays.fill(stateWinner, TallyEngine.TIE);
+        Arrays.fill(ev, 0);
+    }
+
+    public boolean hasNext() { return cursor < index.eventCount(); }
+
+    /** Applies the next county return and returns its row. */
+    public int step() {
+        int county = index.county(cursor++);
+        int st = counties.state[county];
+        for (int c = 0; c < candidates; c++) {
+            long v = counties.votes[c][county];
+            touched[c] = stateVotes[c][st] += v;
+            national[c] += v;
+        }
+
+        // Only the touched state can change hands
+        int before = stateWinner[st];
+        int after = TallyEngine.leader(touched);
+        if (after != before) {
+            if (before != TallyEngine.TIE) ev[before] -= electoral[st];
+            if (after != TallyEngine.TIE) ev[after] += electoral[st];
+            stateWinner[st] = after;
+        }
+        return county;
+    }
+
+    /** Applies every return up to and including {@code time}. */
+    public void advanceTo(long time) {
+        while (hasNext() && index.time(cursor) <= time) step();
+    }
+
+    /**
+     * Steps through the remaining returns, sleeping between them so that one
+     * second of election time takes {@code 1 / speedup} seconds. A speed-up
+     * of zero or less replays as fast as possible.
+     */
+    public void play(double speedup, Listener listener) throws InterruptedException {
+        while (hasNext()) {
+            if (speedup > 0 && cursor > 0) {
+                long gapMillis = (long) ((index.time(cursor) - index.time(cursor - 1)) * 1000 / speedup);
+                if (gapMillis > 0) Thread.sleep(gapMillis);
+            }
+            long start = System.nanoTime();
+            int county = step();
+            listener.onReturn(this, county);
+            RETURN.since(start);
+        }
+    }
+
+    // ----------------------------- LIVE STATE -----------------------------
+    public TimeIndex index()                   { return index; }
+    public CountyData counties()               { return counties; }
+    public int eventsApplied()                 { return cursor; }
+    public int eventCount()                    { return index.eventCount(); }
+    /** Election time of the last applied return, or NO_TIME before the first. */
+    public long currentTime()                  { return cursor == 0 ? CountyData.NO_TIME : index.time(cursor - 1); }
+    public long nationalVotes(int candidate)   { return national[candidate]; }
+    public int electoralVotes(int candidate)   { return ev[candidate]; }
+    public long stateVotes(int candidate, int state) { return stateVotes[candidate][state]; }
+    public int stateWinner(int state)          { return stateWinner[state]; }
+
+    // ----------------------------- AS-OF QUERIES -----------------------------
+    /** Number of returns in by {@code time} (inclusive). */
+    public int eventsAsOf(long time)                        { return index.eventsAsOf(time); }
+    public long nationalVotesAsOf(int candidate, long time) { return index.nationalVotesAsOf(candidate, time); }
+    public int electoralVotesAsOf(int candidate, long time) { return index.electoralVotesAsOf(candidate, time); }
+
+    /** Local seconds since the epoch as "M/D HH:MM:SS". */
+    public static String formatTime(long t) {
+        if (t == CountyData.NO_TIME) return "--:--:--";
+        long day = Math.floorDiv(t, 86_400L);
+        int sec = (int) Math.floorMod(t, 86_400L);
+        java.time.LocalDate d = java.time.LocalDate.ofEpochDay(day);
+        return String.format("%d/%d %02d:%02d:%02d", d.getMonthValue(), d.getDayOfMonth(),
+                sec / 3600, (sec / 60) % 60, sec % 60);
+    }
+}
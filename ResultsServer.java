@@ -0,0 +1,353 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local HTTP/JSON view of the loaded results, for tools that would otherwise
+ * scrape the console.
+ *
+ * <pre>
+ *   GET /api/national               popular and electoral totals
+ *   GET /api/states                 every reported state, as below
+ *   GET /api/states/TX              the fields displayStateSummary prints
+ *   GET /api/states/TX/counties     county rows of one state
+ *   GET /api/asof?time=21:37        county returns as of a clock time
+ * </pre>
+ *
+ * Every response body is serialized once and kept as bytes until the data
+ * changes ({@link #invalidate()}, {@link #setCounties}); requests after that
+ * only copy the cached bytes to the socket. Bodies are keyed by the resource
+ * a request names, not its raw URI, so {@code states/tx} and
+ * {@code states/TX} share an entry, and so do {@code asof?time=21:37} and
+ * {@code asof?time=21:37:00}. At most {@value #ASOF_CACHED} as-of times are
+ * cached per data version; the cache stays bounded however long the server
+ * runs. Such hits are answered on the
+ * server's dispatcher thread, since a hand-off would cost more than the write.
+ * Cache misses, which serialize, and large bodies, whose write may block, run
+ * on virtual threads when the JDK has them (21+), otherwise on a small pool of
+ * platform threads. The server binds to loopback only. Run it with
+ * {@code -Dsun.net.httpserver.nodelay=true} (serve mode sets it): headers and
+ * body go out as separate writes, so without TCP_NODELAY each keep-alive
+ * response waits on the client's delayed ACK (~40 ms).
+ *
+ * Rendering holds the {@link VoteStore}'s read lock, so a document never
+ * mixes values from before and after a live ingest; the ingest's owner
+ * invalidates the cache once its write is done.
+ */
+public class ResultsServer {
+
+    private static final String JSON = "application/json; charset=utf-8";
+    /** Cached bodies up to this size are written straight from the dispatcher thread. */
+    private static final int INLINE_BYTES = 64 * 1024;
+    /** As-of bodies kept per data version; later clock times are rendered on each request. */
+    static final int ASOF_CACHED = 256;
+
+    private final VoteStore votes;
+    private CountyData counties;
+    private TimeIndex timeline;          // built on the first as-of request after a change
+
+    /** Serialized bodies by {@link #resourceKey}; replaced wholesale when the data changes. */
+    private volatile Map<String, byte[]> cache = new ConcurrentHashMap<>();
+    private final AtomicInteger asOfCached = new AtomicInteger();
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private final LongAdder requests = new LongAdder();
+
+    public ResultsServer(VoteStore votes, CountyData counties) {
+        this.votes = votes;
+        this.counties = counties;
+    }
+
+    // ----------------------------- LIFECYCLE -----------------------------
+    /** Starts serving on localhost; port 0 picks a free port. Returns the bound port. */
+    public synchronized int start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+        executor = requestExecutor();
+        server.setExecutor(null);   // handle() runs on the dispatcher and hands off what may block
+        server.createContext("/api/", this::handle);
+        server.start();
+        return server.getAddress().getPort();
+    }
+
+    public synchronized void stop() {
+        if (server == null) return;
+        server.stop(0);
+        executor.shutdown();
+        server = null;
+    }
+
+    /** Virtual thread per request on JDK 21+, else a fixed pool of daemon platform threads. */
+    static ExecutorService requestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            int threads = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+            return Executors.newFixedThreadPool(threads, r -> {
+                Thread t = new Thread(r, "results-api");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    public long requestCount() { return requests.sum(); }
+
+    // ----------------------------- DATA CHANGES -----------------------------
+    /** Drops every cached response; call after the {@link VoteStore} changed. */
+    public void invalidate() {
+        cache = new ConcurrentHashMap<>();
+        asOfCached.set(0);
+    }
+
+    /** New county rows (e.g. from {@link DeltaIngest}); cached responses and the as-of timeline are rebuilt on demand. */
+    public synchronized void setCounties(CountyData data) {
+        counties = data;
+        timeline = null;
+        invalidate();
+    }
+
+    private synchronized CountyData counties() { return counties; }
+
+    private synchronized TimeIndex timeline() {
+        if (timeline == null && counties != null) timeline = new TimeIndex(counties, votes);
+        return timeline;
+    }
+
+    // ----------------------------- ROUTING -----------------------------
+    private void handle(HttpExchange ex) throws IOException {
+        requests.increment();
+        String path = ex.getRequestURI().getPath();
+        String query = ex.getRequestURI().getQuery();
+        String key = resourceKey(path, query);
+        Map<String, byte[]> bodies = cache;
+        byte[] body = key == null ? null : bodies.get(key);
+        if (body != null && body.length <= INLINE_BYTES && "GET".equals(ex.getRequestMethod())) {
+            try (ex) {
+                send(ex, 200, body);
+            }
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                respond(ex, path, query, key, bodies);
+            } catch (IOException e) {
+                // Client went away mid-response; nothing to tell it
+            }
+        });
+    }
+
+    private void respond(HttpExchange ex, String path, String query, String key, Map<String, byte[]> bodies)
+            throws IOException {
+        try (ex) {
+            if (!"GET".equals(ex.getRequestMethod())) {
+                send(ex, 405, error("Only GET is supported"));
+                return;
+            }
+            byte[] body = key == null ? null : bodies.get(key);
+            if (body == null) {
+                String json;
+                String bad = null;
+                votes.lock().readLock().lock();
+                try {
+                    json = render(path, query);
+                } catch (IllegalArgumentException e) {
+                    json = null;
+                    bad = e.getMessage();
+                } finally {
+                    votes.lock().readLock().unlock();
+                }
+                if (bad != null) {
+                    send(ex, 400, error(bad));
+                    return;
+                }
+                if (json == null) {
+                    send(ex, 404, error("No such resource: " + path));
+                    return;
+                }
+                body = json.getBytes(StandardCharsets.UTF_8);
+                if (key != null && (!key.startsWith("asof@") || asOfCached.incrementAndGet() <= ASOF_CACHED)) {
+                    bodies.putIfAbsent(key, body);
+                }
+            }
+            send(ex, 200, body);
+        }
+    }
+
+    /**
+     * Cache key of the resource a request names: the state ID upper-cased, the
+     * as-of time as seconds of the day, other query parameters ignored. Null
+     * when the request is not cached (unknown path, missing or bad time).
+     */
+    static String resourceKey(String path, String query) {
+        String[] parts = path.split("/");   // "", "api", ...
+        if (parts.length < 3) return null;
+        if (parts.length == 3 && (parts[2].equals("national") || parts[2].equals("states"))) return parts[2];
+        if (parts.length == 4 && parts[2].equals("states")) return "states/" + parts[3].toUpperCase(Locale.ROOT);
+        if (parts.length == 5 && parts[2].equals("states") && parts[4].equals("counties")) {
+            return "states/" + parts[3].toUpperCase(Locale.ROOT) + "/counties";
+        }
+        if (parts.length == 3 && parts[2].equals("asof")) {
+            try {
+                return "asof@" + TheVizzard.parseClock(param(query, "time"));
+            } catch (IllegalArgumentException e) {
+                return null;        // answered 400 by render()
+            }
+        }
+        return null;
+    }
+
+    /** JSON for a request, null if nothing lives at {@code path}. */
+    private String render(String path, String query) {
+        String[] parts = path.split("/");   // "", "api", ...
+        if (parts.length == 3 && parts[2].equals("national")) return national();
+        if (parts.length == 3 && parts[2].equals("states")) return states();
+        if (parts.length == 4 && parts[2].equals("states")) return state(parts[3].toUpperCase());
+        if (parts.length == 5 && parts[2].equals("states") && parts[4].equals("counties")) {
+            return counties(parts[3].toUpperCase());
+        }
+        if (parts.length == 3 && parts[2].equals("asof")) return asOf(param(query, "time"));
+        return null;
+    }
+
+    private static String param(String query, String name) {
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                int eq = pair.indexOf('=');
+                if (eq > 0 && pair.substring(0, eq).equals(name)) return pair.substring(eq + 1);
+            }
+        }
+        throw new IllegalArgumentException("Missing parameter: " + name);
+    }
+
+    private static void send(HttpExchange ex, int status, byte[] body) throws IOException {
+        ex.getResponseHeaders().set("Content-Type", JSON);
+        ex.sendResponseHeaders(status, body.length);
+        ex.getResponseBody().write(body);
+    }
+
+    private static byte[] error(String message) {
+        return ("{\"error\":" + quote(message) + "}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    // ----------------------------- DOCUMENTS -----------------------------
+    private String national() {
+        TallyEngine.Tally tally = votes.tally();
+        long[] popular = votes.popularTotals();
+        int[] ev = votes.electoralTotals(tally);
+        StringBuilder sb = new StringBuilder("{\"statesReported\":").append(votes.reportedCount()).append(",\"candidates\":[");
+        for (int c = 0; c < popular.length; c++) {
+            if (c > 0) sb.append(',');
+            sb.append("{\"name\":").append(quote(votes.candidateName(c)))
+              .append(",\"votes\":").append(popular[c])
+              .append(",\"electoralVotes\":").append(ev[c]).append('}');
+        }
+        sb.append("],\"popularWinner\":").append(candidate(TallyEngine.leader(popular)))
+          .append(",\"winner\":").append(candidate(TallyEngine.leader(ev)));
+        return sb.append('}').toString();
+    }
+
+    private String states() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int st : votes.reportedOrdinals()) {
+            if (sb.length() > 1) sb.append(',');
+            stateSummary(st, sb);
+        }
+        return sb.append(']').toString();
+    }
+
+    private String state(String id) {
+        int st = votes.ordinal(id);
+        if (!votes.reported(st)) return null;
+        return stateSummary(st, new StringBuilder()).toString();
+    }
+
+    /** Same fields as TheVizzard.displayStateSummary: total, votes and share per candidate, winner, EV. */
+    private StringBuilder stateSummary(int st, StringBuilder sb) {
+        long total = 0;
+        long[] row = new long[votes.candidates()];
+        for (int c = 0; c < row.length; c++) total += row[c] = votes.votes(c, st);
+        sb.append("{\"state\":").append(quote(votes.id(st)))
+          .append(",\"totalVotes\":").append(total)
+          .append(",\"candidates\":[");
+        for (int c = 0; c < row.length; c++) {
+            if (c > 0) sb.append(',');
+            sb.append("{\"name\":").append(quote(votes.candidateName(c)))
+              .append(",\"votes\":").append(row[c])
+              .append(",\"pct\":").append(total == 0 ? "0" : String.format(Locale.ROOT, "%.2f", row[c] * 100.0 / total)).append('}');
+        }
+        return sb.append("],\"winner\":").append(candidate(TallyEngine.leader(row)))
+                 .append(",\"electoralVotes\":").append(votes.electoral(st)).append('}');
+    }
+
+    private String counties(String id) {
+        CountyData data = counties();
+        int st = data == null ? -1 : data.states.ordinal(id);
+        if (st < 0) return null;
+        StringBuilder sb = new StringBuilder("{\"state\":").append(quote(id)).append(",\"candidates\":[");
+        for (int c = 0; c < data.candidates(); c++) sb.append(c > 0 ? "," : "").append(quote(data.candidateName(c)));
+        sb.append("],\"counties\":[");
+        boolean first = true;
+        for (int j = 0; j < data.size(); j++) {
+            if (data.state[j] != st) continue;
+            if (!first) sb.append(',');
+            first = false;
+            sb.append("{\"name\":").append(quote(data.names[j]))
+              .append(",\"fips\":").append(data.fips[j] >= 0 ? String.format("\"%05d\"", data.fips[j]) : "null")
+              .append(",\"lat\":").append(data.lat[j])
+              .append(",\"lng\":").append(data.lon[j])
+              .append(",\"votes\":[");
+            for (int c = 0; c < data.candidates(); c++) sb.append(c > 0 ? "," : "").append(data.votes[c][j]);
+            sb.append("],\"returnTime\":").append(data.returnTime[j] == CountyData.NO_TIME ? "null"
+                    : quote(ReplayEngine.formatTime(data.returnTime[j]))).append('}');
+        }
+        return sb.append("]}").toString();
+    }
+
+    private String asOf(String clock) {
+        int seconds;
+        try {
+            seconds = TheVizzard.parseClock(clock);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Bad time: " + clock);
+        }
+        TimeIndex index = timeline();
+        if (index == null) return null;
+        TimeIndex.Snapshot snap = index.asOf(index.resolveClock(seconds));
+        CountyData data = index.counties();
+        StringBuilder sb = new StringBuilder("{\"time\":").append(quote(ReplayEngine.formatTime(snap.time)))
+                .append(",\"countiesReported\":").append(snap.countiesReported)
+                .append(",\"countiesTotal\":").append(snap.countiesTotal)
+                .append(",\"statesReporting\":").append(snap.statesReporting)
+                .append(",\"candidates\":[");
+        for (int c = 0; c < snap.votes.length; c++) {
+            if (c > 0) sb.append(',');
+            sb.append("{\"name\":").append(quote(data.candidateName(c)))
+              .append(",\"votes\":").append(snap.votes[c])
+              .append(",\"electoralVotes\":").append(snap.electoral[c]).append('}');
+        }
+        return sb.append("]}").toString();
+    }
+
+    private String candidate(int c) {
+        return c == TallyEngine.TIE ? "null" : quote(votes.candidateName(c));
+    }
+
+    static String quote(String s) {
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char ch = s.charAt(i);
+            if (ch == '"' || ch == '\\') sb.append('\\').append(ch);
+            else if (ch < 0x20) sb.append(String.format("\\u%04x", (int) ch));
+            else sb.append(ch);
+        }
+        return sb.append('"').toString();
+    }
+}
@@ -0,0 +1,49 @@
+import java.io.*;
+
+/**
+ * Loads electoral votes from State-Info.csv into a {@link VoteStore}.
+ *
+ * The first two lines are titles; the third names the columns ("Postal
+ * Abbreviation", "Electoral Votes"). Without that header the old fixed
+ * positions (columns 1 and 14) are used.
+ */
+public class StateInfoCsv {
+
+    private StateInfoCsv() { }
+
+    /** Returns how many state rows were stored; rows with an unparsable EV are reported and skipped. */
+    public static int load(File file, VoteStore votes) throws IOException {
+        if (!file.exists()) throw new FileNotFoundException(file.getPath());
+
+        long start = System.nanoTime();
+        int loaded = 0, rejected = 0;
+        try (CsvTokenizer csv = new CsvTokenizer(file)) {
+            // Read past the two title lines ("Title: ...", "Timeframe: ..."); the third record is the column header
+            if (!csv.next() || !csv.next() || !csv.next()) return 0;
+
+            // Third line names the columns; without it keep the old fixed positions
+            int codeCol = 1, evCol = 14;
+            boolean header = false;
+            for (int f = 0; f < csv.fieldCount(); f++) {
+                if (csv.equalsIgnoreCase(f, "Postal Abbreviation")) { codeCol = f; header = true; }
+                if (csv.equalsIgnoreCase(f, "Electoral Votes"))     { evCol = f;   header = true; }
+            }
+            if (header && !csv.next()) return 0;
+
+            do {
+                if (csv.isBlank(codeCol) || csv.isBlank(evCol)) continue;   // blank rows, national total
+                String stateCode = csv.string(codeCol);
+                try {
+                    votes.setElectoral(stateCode, (int) csv.parseLong(evCol));
+                    loaded++;
+                } catch (NumberFormatException e) {
+                    System.out.println("Skipping invalid EV for " + stateCode + ": " + csv.string(evCol));
+                    rejected++;
+                }
+            } while (csv.next());
+        }
+        Metrics.rejected("state-info", "bad-ev", rejected);
+        Metrics.loaded("state-info", loaded, file.length(), System.nanoTime() - start);
+        return loaded;
+    }
+}
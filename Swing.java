@@ -0,0 +1,223 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * County-level change between two elections of an {@link ElectionSet}.
+ *
+ * The shift of a county is the change in candidate 0's margin over candidate
+ * 1, as a share of all its votes, in percentage points; positive means it
+ * moved towards candidate 0. The swing is half of that; other columns'
+ * votes stay in the denominator of both, so neither is a two-party figure.
+ * Turnout is the relative change in total votes. As in
+ * {@link MonteCarlo}, the race is between the first two candidate columns
+ * of the earlier file, whatever they are called; the later file's columns
+ * are matched to them by candidate name, so a re-export with the columns in
+ * another order gives the same shifts. A pair where the later file lacks
+ * either name is rejected.
+ *
+ * Both elections are first summed per county ordinal, walking each one's
+ * rows grouped by county, so precinct rows fold into their county and row
+ * order need not match. The county range is split across fork/join tasks
+ * that write disjoint slices, and the shifts then come out of one
+ * branch-light loop over aligned primitive columns. States and the nation
+ * are summed from the county columns afterwards.
+ */
+public final class Swing {
+
+    /** Counties per leaf task. */
+    static final int LEAF_COUNTIES = 4_096;
+
+    private static final Metrics.Timer COMPUTE = Metrics.timer("analysis.swing");
+
+    public final ElectionSet.Election from, to;
+    /** Vote columns of the two candidates in {@link #from} and {@link #to}; a positive shift is towards [0]. */
+    public final int[] fromColumns, toColumns;
+    /** [county ordinal] shift in points; NaN unless the county has votes in both elections. */
+    public final float[] shift;
+    /** [county ordinal] total votes in {@link #to} over {@link #from}, minus one; NaN unless it had votes in both. */
+    public final float[] turnout;
+    /** [state ordinal] shift over the state's counties with votes in both; NaN if none. */
+    public final double[] stateShift;
+    public final double nationalShift, nationalTurnout;
+    /** Counties with votes in both elections. */
+    public final int matched;
+
+    private Swing(ElectionSet.Election from, ElectionSet.Election to, Columns cols,
+                  double[] stateShift, double nationalShift, double nationalTurnout, int matched) {
+        this.from = from;
+        this.to = to;
+        this.fromColumns = cols.fromColumns;
+        this.toColumns = cols.toColumns;
+        this.shift = cols.shift;
+        this.turnout = cols.turnout;
+        this.stateShift = stateShift;
+        this.nationalShift = nationalShift;
+        this.nationalTurnout = nationalTurnout;
+        this.matched = matched;
+    }
+
+    /** Swing of county {@code k}: half its shift, still as a share of all its votes. */
+    public double swing(int k) { return shift[k] / 2; }
+
+    /** Name of compared candidate {@code i} (0 or 1), as in both headers. */
+    public String candidateName(int i) { return to.data.candidateName(toColumns[i]); }
+
+    /** Shift of the county that row {@code j} of {@link #to} belongs to. */
+    public float shiftOfRow(int j) { return shift[to.county(j)]; }
+
+    // ----------------------------- COMPUTATION -----------------------------
+    /** Change from election {@code from} to {@code to} of {@code set}, on the common pool. */
+    public static Swing compute(ElectionSet set, String from, String to) {
+        ElectionSet.Election a = set.get(from), b = set.get(to);
+        if (a == null) throw new IllegalArgumentException("No election " + from);
+        if (b == null) throw new IllegalArgumentException("No election " + to);
+        return compute(set, a, b, ForkJoinPool.commonPool());
+    }
+
+    public static Swing compute(ElectionSet set, ElectionSet.Election from, ElectionSet.Election to, ForkJoinPool pool) {
+        if (from.data.candidates() < 2 || to.data.candidates() < 2) {
+            throw new IllegalArgumentException("Need at least two candidate columns in both elections");
+        }
+        int[] fromColumns = {0, 1};
+        int[] toColumns = {column(to, from.data.candidateName(0)), column(to, from.data.candidateName(1))};
+        long start = System.nanoTime();
+        int n = set.counties();
+        Columns cols = new Columns(n, fromColumns, toColumns);
+        cols.shift = new float[n];
+        cols.turnout = new float[n];
+        if (n <= LEAF_COUNTIES || pool.getParallelism() == 1) pass(from, to, cols, 0, n);
+        else pool.invoke(new Pass(from, to, cols, 0, n));
+
+        // States and nation, over counties present in both
+        int states = set.states().size(), matched = 0;
+        int[] stateOf = set.countyStates();
+        long[] sa = new long[states], sb = new long[states], sta = new long[states], stb = new long[states];
+        long na = 0, nb = 0, nta = 0, ntb = 0;
+        for (int k = 0; k < n; k++) {
+            if (cols.totalA[k] == 0 || cols.totalB[k] == 0) continue;
+            matched++;
+            int s = stateOf[k];
+            sa[s] += cols.marginA[k];
+            sb[s] += cols.marginB[k];
+            sta[s] += cols.totalA[k];
+            stb[s] += cols.totalB[k];
+            na += cols.marginA[k];
+            nb += cols.marginB[k];
+            nta += cols.totalA[k];
+            ntb += cols.totalB[k];
+        }
+        double[] stateShift = new double[states];
+        for (int s = 0; s < states; s++) stateShift[s] = shift(sa[s], sta[s], sb[s], stb[s]);
+        Swing swing = new Swing(from, to, cols, stateShift,
+                shift(na, nta, nb, ntb), nta == 0 ? Double.NaN : (double) ntb / nta - 1, matched);
+        COMPUTE.since(start);
+        return swing;
+    }
+
+    /** Vote column of candidate {@code name} in {@code e}. */
+    private static int column(ElectionSet.Election e, String name) {
+        CountyData data = e.data;
+        for (int c = 0; c < data.candidates(); c++) {
+            if (data.candidateName(c).equals(name)) return c;
+        }
+        throw new IllegalArgumentException(e.label + " has no " + name + " votes column; its candidates are "
+                + String.join(", ", data.candidates));
+    }
+
+    private static double shift(long marginA, long totalA, long marginB, long totalB) {
+        if (totalA == 0 || totalB == 0) return Double.NaN;
+        return 100.0 * ((double) marginB / totalB - (double) marginA / totalA);
+    }
+
+    /** Per-county sums of both elections and the outputs, all indexed by county ordinal. */
+    private static final class Columns {
+        final long[] marginA, totalA, marginB, totalB;
+        final int[] fromColumns, toColumns;
+        float[] shift, turnout;
+
+        Columns(int n, int[] fromColumns, int[] toColumns) {
+            this.fromColumns = fromColumns;
+            this.toColumns = toColumns;
+            marginA = new long[n];
+            totalA = new long[n];
+            marginB = new long[n];
+            totalB = new long[n];
+        }
+    }
+
+    /** Counties [lo, hi): sum each election's rows per county, then the shift of each. */
+    private static void pass(ElectionSet.Election from, ElectionSet.Election to, Columns cols, int lo, int hi) {
+        sum(from, cols.fromColumns, lo, hi, cols.marginA, cols.totalA);
+        sum(to, cols.toColumns, lo, hi, cols.marginB, cols.totalB);
+        long[] ma = cols.marginA, ta = cols.totalA, mb = cols.marginB, tb = cols.totalB;
+        float[] shift = cols.shift, turnout = cols.turnout;
+        // Straight-line over aligned columns; 0/0 comes out NaN for a county missing from either side
+        for (int k = lo; k < hi; k++) {
+            double a = (double) ma[k] / ta[k], b = (double) mb[k] / tb[k];
+            shift[k] = (float) (100 * (b - a));
+            turnout[k] = ta[k] == 0 ? Float.NaN : (float) ((double) tb[k] / ta[k] - 1);
+        }
+    }
+
+    private static void sum(ElectionSet.Election e, int[] columns, int lo, int hi, long[] margin, long[] total) {
+        long[][] votes = e.data.votes;
+        long[] v0 = votes[columns[0]], v1 = votes[columns[1]];
+        for (int k = lo; k < hi; k++) {
+            long m = 0, t = 0;
+            for (int i = e.rowsFrom(k), end = e.rowsTo(k); i < end; i++) {
+                int j = e.rowAt(i);
+                m += v0[j] - v1[j];
+                for (long[] column : votes) t += column[j];
+            }
+            margin[k] = m;
+            total[k] = t;
+        }
+    }
+
+    private static final class Pass extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final ElectionSet.Election from, to;
+        private final Columns cols;
+        private final int lo, hi;
+
+        Pass(ElectionSet.Election from, ElectionSet.Election to, Columns cols, int lo, int hi) {
+            this.from = from;
+            this.to = to;
+            this.cols = cols;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= LEAF_COUNTIES) {
+                pass(from, to, cols, lo, hi);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new Pass(from, to, cols, lo, mid), new Pass(from, to, cols, mid, hi));
+        }
+    }
+
+    // ----------------------------- RANKING -----------------------------
+    /** Up to {@code limit} county ordinals with a shift, largest absolute shift first. */
+    public int[] largestCountyShifts(int limit) {
+        return largest(shift.length, k -> shift[k], limit);
+    }
+
+    /** Up to {@code limit} state ordinals with a shift, largest absolute shift first. */
+    public int[] largestStateShifts(int limit) {
+        return largest(stateShift.length, s -> stateShift[s], limit);
+    }
+
+    private static int[] largest(int n, java.util.function.IntToDoubleFunction value, int limit) {
+        Integer[] order = new Integer[n];
+        int m = 0;
+        for (int i = 0; i < n; i++) if (!Double.isNaN(value.applyAsDouble(i))) order[m++] = i;
+        Arrays.sort(order, 0, m, (x, y) -> Double.compare(Math.abs(value.applyAsDouble(y)), Math.abs(value.applyAsDouble(x))));
+        int[] top = new int[Math.min(limit, m)];
+        for (int i = 0; i < top.length; i++) top[i] = order[i];
+        return top;
+    }
+}
@@ -0,0 +1,162 @@
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * N-candidate tally kernel over a candidate-by-jurisdiction vote matrix.
+ *
+ * One sweep over the matrix produces, per jurisdiction, the total, the
+ * leading and runner-up vote counts and the winner. Shares and margins are
+ * then O(1) lookups. The sweep is candidate-major with branch-free selects, so
+ * the inner loop is a contiguous scan of one {@code long[]} column at a time.
+ *
+ * When the JVM runs with {@code --add-modules jdk.incubator.vector} and the
+ * Maven-built TallyVectorKernel is on the class path, the sweep runs on the
+ * Vector API instead; otherwise (BlueJ, or no flag) the scalar loop here does.
+ * {@code -Dvizzard.tally.vector=false} forces the scalar loop.
+ */
+public class TallyEngine {
+
+    /** Winner value for a jurisdiction where the top two candidates are tied (or nobody voted). */
+    public static final int TIE = -1;
+
+    private static final Metrics.Timer TALLY = Metrics.timer("aggregate.tally");
+    // Sub-microsecond over the states: counted, since timing them would cost more than the sums
+    private static final Metrics.Counter POPULAR = Metrics.counter("aggregate.popular.calls");
+    private static final Metrics.Counter ELECTORAL = Metrics.counter("aggregate.electoral.calls");
+
+    /** TallyVectorKernel.sweep, or null when the Vector API or the kernel is not available. */
+    private static final MethodHandle VECTOR_SWEEP = vectorSweep();
+
+    private static MethodHandle vectorSweep() {
+        if ("false".equalsIgnoreCase(System.getProperty("vizzard.tally.vector"))) return null;
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) return null;
+        try {
+            Class<?> kernel = Class.forName("TallyVectorKernel");
+            return MethodHandles.lookup().findStatic(kernel, "sweep", MethodType.methodType(void.class,
+                    long[][].class, int.class, long[].class, long[].class, long[].class, int[].class));
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;    // built without the kernel, or no usable vector shape on this CPU
+        }
+    }
+
+    /** Tallies the first {@code n} jurisdictions of {@code votes[candidate][jurisdiction]}. */
+    public static Tally tally(long[][] votes, int n) {
+        long start = System.nanoTime();
+        Tally t = new Tally(votes, n);
+        long[] total = t.total, best = t.best, second = t.second;
+        int[] winner = t.winner;
+
+        java.util.Arrays.fill(best, -1L);
+        java.util.Arrays.fill(second, -1L);
+        java.util.Arrays.fill(winner, TIE);
+
+        if (VECTOR_SWEEP != null) {
+            try {
+                VECTOR_SWEEP.invokeExact(votes, n, total, best, second, winner);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        } else {
+            sweep(votes, n, total, best, second, winner);
+        }
+
+        for (int j = 0; j < n; j++) {
+            if (second[j] < 0) second[j] = 0;                 // single-candidate race
+            if (best[j] == second[j]) winner[j] = TIE;
+        }
+        TALLY.since(start);
+        return t;
+    }
+
+    /** Scalar sweep: folds every column of {@code votes} into the running total, best, runner-up and winner. */
+    private static void sweep(long[][] votes, int n, long[] total, long[] best, long[] second, int[] winner) {
+        for (int c = 0; c < votes.length; c++) {
+            long[] col = votes[c];
+            for (int j = 0; j < n; j++) {
+                long v = col[j];
+                long b = best[j];
+                boolean lead = v > b;
+                second[j] = lead ? b : Math.max(second[j], v);
+                best[j]   = lead ? v : b;
+                winner[j] = lead ? c : winner[j];
+                total[j] += v;
+            }
+        }
+    }
+
+    /** Electoral votes won by each candidate; tied jurisdictions award nothing. */
+    public static int[] electoralTotals(Tally t, int[] electoral) {
+        ELECTORAL.increment();
+        int[] ev = new int[t.candidates()];
+        int[] winner = t.winner;
+        for (int j = 0; j < t.n; j++) {
+            int w = winner[j];
+            if (w != TIE) ev[w] += electoral[j];
+        }
+        return ev;
+    }
+
+    /** Column sums: each candidate's total over all jurisdictions. */
+    public static long[] popularTotals(long[][] votes, int n) {
+        POPULAR.increment();
+        long[] totals = new long[votes.length];
+        for (int c = 0; c < votes.length; c++) {
+            long[] col = votes[c];
+            long sum = 0;
+            for (int j = 0; j < n; j++) sum += col[j];
+            totals[c] = sum;
+        }
+        return totals;
+    }
+
+    /** Index of the largest value, or {@link #TIE} if the top value is shared. */
+    public static int leader(long[] values) {
+        int lead = TIE;
+        long best = Long.MIN_VALUE;
+        boolean tied = false;
+        for (int c = 0; c < values.length; c++) {
+            if (values[c] > best) { best = values[c]; lead = c; tied = false; }
+            else if (values[c] == best) tied = true;
+        }
+        return tied ? TIE : lead;
+    }
+
+    /** Same as {@link #leader(long[])} for int counts. */
+    public static int leader(int[] values) {
+        long[] widened = new long[values.length];
+        for (int c = 0; c < values.length; c++) widened[c] = values[c];
+        return leader(widened);
+    }
+
+    // ----------------------------- RESULT -----------------------------
+    /** Per-jurisdiction result of one sweep. */
+    public static class Tally {
+        final long[][] votes;
+        final int n;
+        final long[] total, best, second;
+        final int[] winner;
+
+        Tally(long[][] votes, int n) {
+            this.votes = votes;
+            this.n = n;
+            this.total = new long[n];
+            this.best = new long[n];
+            this.second = new long[n];
+            this.winner = new int[n];
+        }
+
+        public int size()                 { return n; }
+        public int candidates()           { return votes.length; }
+        public long total(int j)          { return total[j]; }
+        public int winner(int j)          { return winner[j]; }
+        /** Votes separating the leader from the runner-up. */
+        public long margin(int j)         { return best[j] - second[j]; }
+        /** Margin as a fraction of all votes cast in the jurisdiction (0 when empty). */
+        public double marginShare(int j)  { return total[j] > 0 ? (double) margin(j) / total[j] : 0.0; }
+        /** Candidate's share (0-100) in the jurisdiction, NaN if nobody voted. */
+        public double share(int c, int j) { return total[j] > 0 ? votes[c][j] * 100.0 / total[j] : Double.NaN; }
+    }
+}
@@ -1,15 +1,17 @@
 import java.io.*;
+import java.nio.file.Files;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import javax.imageio.ImageIO;
 import javax.swing.*;
 import java.awt.*;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import java.awt.image.BufferedImage;
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.Graphics;
 import java.util.List;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Map;
 
 /**
@@ -25,15 +27,131 @@ public class TheVizzard {
     private static String candidateA = "Candidate A";
     private static String candidateB = "Candidate B";
 
-    public static String getCandidateA() { return candidateA; }
-    public static String getCandidateB() { return candidateB; }
+    public static String getCandidateA() { return candidateName(0); }
+    public static String getCandidateB() { return candidateName(1); }
+
+    /** Per-state votes (one long[] column per candidate) plus electoral votes, keyed by state ordinal
+     *  (shared with the county datasets, so county and state ordinals agree). */
+    private static final VoteStore votes = new VoteStore(CountyDataset.states());
+
+    /** County return timeline for as-of queries; null when Voting-Counties.csv is unavailable. */
+    private static TimeIndex timeIndex;
+
+    /** Bar and dot colors by candidate index; A and B keep their original green and magenta. */
+    private static final Color[] PALETTE = {
+            Color.GREEN, Color.MAGENTA, Color.ORANGE, Color.CYAN, Color.BLUE,
+            Color.RED, Color.PINK, Color.YELLOW, Color.GRAY, Color.DARK_GRAY };
+    private static final String[] PALETTE_NAMES = {
+            "Green", "Magenta", "Orange", "Cyan", "Blue",
+            "Red", "Pink", "Yellow", "Gray", "Dark Gray" };
+
+    /** Display name: the names typed at startup for A and B, otherwise the header name. */
+    public static String candidateName(int c) {
+        if (c == 0 && candidateA != null && !candidateA.isEmpty()) return candidateA;
+        if (c == 1 && candidateB != null && !candidateB.isEmpty()) return candidateB;
+        return c < votes.candidates() ? votes.candidateName(c) : "Candidate " + (char) ('A' + c);
+    }
+
+    public static Color getCandidateColor(int c)      { return PALETTE[c % PALETTE.length]; }
+    public static String getCandidateColorName(int c) { return PALETTE_NAMES[c % PALETTE_NAMES.length]; }
+
+    /** XLSX reader mode: streaming SAX by default, full XSSFWorkbook DOM with -Dvizzard.xlsx=dom. */
+    private static final boolean STREAM_XLSX = !"dom".equalsIgnoreCase(System.getProperty("vizzard.xlsx"));
 
-    private static final Map<String, Integer> electoralVotes = new HashMap<>();
-    private static final Map<String, Map<String, Integer>> voteResults = new HashMap<>();
+    /** Binary snapshot of the loaded sources; -Dvizzard.snapshot=off always parses the originals. */
+    private static final boolean USE_SNAPSHOT = !"off".equalsIgnoreCase(System.getProperty("vizzard.snapshot"));
+
+    private static final String STATE_INFO_CSV = "data/State-Info.csv";
+    private static final String VOTE_RESULTS_XLSX = "data/Vote-Results.xlsx";
 
     // ----------------------------- MAIN -----------------------------
     public static void main(String[] args) {
         System.out.println("==========  The Vizzard — Election Analyzer ==========\n");
+        Metrics.start();   // JMX beans plus logs/metrics.log; -Dvizzard.metrics.log=off for none
+
+        // java TheVizzard --replay [speed-up]: replay election night from the county return times
+        if (args.length > 0 && args[0].equals("--replay")) {
+            try {
+                replayElectionNight(args.length > 1 ? Double.parseDouble(args[1]) : 600.0);
+            } catch (Exception e) {
+                e.printStackTrace();
+                System.out.println("⚠️  Replay failed: " + e.getMessage());
+            }
+            return;
+        }
+
+        // java TheVizzard --aggregate [counties.csv]: state results built bottom-up from county rows
+        if (args.length > 0 && args[0].equals("--aggregate")) {
+            try {
+                aggregateCounties(args.length > 1 ? args[1] : CountyDataset.DEFAULT_PATH);
+            } catch (Exception e) {
+                e.printStackTrace();
+                System.out.println("⚠️  Aggregation failed: " + e.getMessage());
+            }
+            return;
+        }
+
+        // java TheVizzard --batch [file.properties] [--flag value ...]: every report and map to files
+        if (args.length > 0 && args[0].equals("--batch")) {
+            System.setProperty("java.awt.headless", "true");
+            try {
+                runBatch(BatchConfig.parse(Arrays.copyOfRange(args, 1, args.length)));
+            } catch (Exception e) {
+                e.printStackTrace();
+                System.out.println("⚠️  Batch failed: " + e.getMessage());
+                System.exit(1);
+            }
+            return;
+        }
+
+        // java TheVizzard --watch: apply re-exported result files in data/ as they change
+        if (args.length > 0 && args[0].equals("--watch")) {
+            try {
+                watchResults(null);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                e.printStackTrace();
+                System.out.println("⚠️  Watch failed: " + e.getMessage());
+            }
+            return;
+        }
+
+        // java TheVizzard --serve [port]: JSON API on localhost, kept current as data/ changes
+        if (args.length > 0 && args[0].equals("--serve")) {
+            try {
+                serveResults(args.length > 1 ? Integer.parseInt(args[1]) : 8080);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                e.printStackTrace();
+                System.out.println("⚠️  Server failed: " + e.getMessage());
+            }
+            return;
+        }
+
+        // java TheVizzard --simulate [HH:MM|now|final] [runs]: outcome odds for the votes not yet counted
+        if (args.length > 0 && args[0].equals("--simulate")) {
+            try {
+                simulateOutcomes(args.length > 1 ? args[1] : "now",
+                        args.length > 2 ? Long.parseLong(args[2].replace("_", "")) : 1_000_000L);
+            } catch (Exception e) {
+                e.printStackTrace();
+                System.out.println("⚠️  Simulation failed: " + e.getMessage());
+            }
+            return;
+        }
+
+        // java TheVizzard --swing earlier.csv later.csv [more.csv ...] [STATE]: county shifts between elections
+        if (args.length > 0 && args[0].equals("--swing")) {
+            try {
+                compareElections(Arrays.copyOfRange(args, 1, args.length));
+            } catch (Exception e) {
+                e.printStackTrace();
+                System.out.println("⚠️  Swing failed: " + e.getMessage());
+            }
+            return;
+        }
 
         Scanner in = new Scanner(System.in);
         System.out.print("Enter name for Candidate A: ");
@@ -46,23 +164,22 @@ public class TheVizzard {
 
         try {
             // Load all files
-            loadElectoralVotesCSV("data/State-Info.csv");
-            loadVoteResultsXLSX("data/Vote-Results.xlsx");
+            loadData();
 
-            // Calculate stats
-            Map<String, Map<String, Double>> percentages = calculateStatePercentages();
-            int[] electoralTotals = calculateElectoralVotes();
-            int[] popularTotals = calculatePopularVotes();
+            // Calculate stats (one sweep gives winners, shares and margins for every state)
+            TallyEngine.Tally tally = votes.tally();
+            int[] electoralTotals = calculateElectoralVotes(tally);
+            long[] popularTotals = calculatePopularVotes();
 
             // Print results
-            printStatePercentages(percentages);
-            printPopularVoteResults(popularTotals);
-            printElectoralSummary(electoralTotals, popularTotals);
+            printStatePercentages(tally, System.out);
+            printPopularVoteResults(popularTotals, System.out);
+            printElectoralSummary(electoralTotals, popularTotals, System.out);
 
             // One-state summary
             System.out.print("\nEnter State ID for summary: ");
             String state = in.nextLine().trim().toUpperCase();
-            displayStateSummary(state);
+            displayStateSummary(state, System.out);
 
             // Simulate partial reporting
             simulatePartialResults(in);
@@ -92,240 +209,584 @@ public class TheVizzard {
     }
 
     // ----------------------------- LOADERS -----------------------------
-    /** Reads electoral votes from CSV. */
+    /** Reads electoral votes from CSV; see {@link StateInfoCsv} for the column rules. */
     private static void loadElectoralVotesCSV(String filename) throws IOException {
-        File file = new File(filename);
-        if (!file.exists()) throw new FileNotFoundException(filename);
-
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            List<String> lines = new ArrayList<>();
-            String line;
-            while ((line = br.readLine()) != null) {
-                lines.add(line);
-            }
-
-            // Skip first two header-ish lines per your original file
-            for (int i = 2; i < lines.size(); i++) {
-                String[] parts = lines.get(i).split(",");
-                if (parts.length >= 15) {
-                    String stateCode = parts[1].trim();
-                    String evStr = parts[14].trim().replaceAll("[^0-9.]", ""); // strip text like "votes"
-                    if (!evStr.isEmpty()) {
-                        try {
-                            int ev = (int) Double.parseDouble(evStr);
-                            electoralVotes.put(stateCode, ev);
-                        } catch (NumberFormatException e) {
-                            System.out.println("Skipping invalid EV for " + stateCode + ": " + evStr);
-                        }
-                    }
-                }
-            }
-        }
-        System.out.println("Loaded " + electoralVotes.size() + " state electoral entries.");
+        int loaded = StateInfoCsv.load(new File(filename), votes);
+        System.out.println("Loaded " + loaded + " state electoral entries.");
     }
 
-    /** Reads vote results from Excel (Apache POI). Expect columns:
-     *  [*, stateId at col 1, *, A_Votes at col 3, B_Votes at col 4, ...]
+    /**
+     * Loads electoral votes, state results and counties: from the binary
+     * snapshot when it matches the sources, otherwise from the CSV/XLSX files,
+     * after which a fresh snapshot is written for the next start.
      */
-    private static void loadVoteResultsXLSX(String filename) throws IOException {
-        File file = new File(filename);
-        if (!file.exists()) throw new FileNotFoundException(filename);
-
-        try (FileInputStream fis = new FileInputStream(file);
-             Workbook wb = new XSSFWorkbook(fis)) {
-
-            Sheet sheet = wb.getSheet("Results");
-            if (sheet == null) {
-                // Fallback: first sheet if "Results" isn't found
-                sheet = wb.getNumberOfSheets() > 0 ? wb.getSheetAt(0) : null;
-            }
-            if (sheet == null) throw new IllegalStateException("No sheet found in " + filename);
-
-            int lastRow = sheet.getLastRowNum();
-            for (int r = 2; r <= lastRow; r++) {           // start at row 2 (0-based) per your file
-                Row row = sheet.getRow(r);
-                if (row == null) continue;
-
-                Cell stateCell = row.getCell(1);            // state ID
-                Cell aCell     = row.getCell(3);            // A_Votes
-                Cell bCell     = row.getCell(4);            // B_Votes
-                if (stateCell == null || aCell == null || bCell == null) continue;
-
-                String stateId = null;
-                try {
-                    stateId = stateCell.getStringCellValue();
-                } catch (Exception ignore) {
-                    // If it's numeric for some reason, try converting
-                    if (stateCell.getCellType() == CellType.NUMERIC) {
-                        stateId = String.valueOf((int) stateCell.getNumericCellValue());
-                    }
+    private static void loadData() throws IOException {
+        File[] sources = { new File(STATE_INFO_CSV), new File(VOTE_RESULTS_XLSX), new File(CountyDataset.DEFAULT_PATH) };
+        File snapshot = new File(DataSnapshot.DEFAULT_PATH);
+        long checksum = USE_SNAPSHOT ? DataSnapshot.checksum(sources) : 0;
+
+        if (USE_SNAPSHOT) {
+            try {
+                long start = System.nanoTime();
+                CountyData counties = DataSnapshot.read(snapshot, checksum, CountyDataset.states(), votes);
+                if (counties != null) {
+                    CountyDataset.put(CountyDataset.DEFAULT_PATH, counties);
+                    System.out.printf("⚡ Loaded %d state results and %d counties from %s (%.1f ms).%n",
+                            votes.reportedCount(), counties.size(), snapshot, (System.nanoTime() - start) / 1e6);
+                    indexCountyTimeline(counties);
+                    return;
                 }
-                if (stateId == null) continue;
-                stateId = stateId.trim();
-
-                int aVotes = safeInt(aCell);
-                int bVotes = safeInt(bCell);
+            } catch (IOException e) {
+                System.out.println("⚠️  Ignoring snapshot: " + e.getMessage());
+            }
+        }
 
-                Map<String, Integer> pair = new HashMap<>();
-                pair.put("A", aVotes);
-                pair.put("B", bVotes);
-                voteResults.put(stateId, pair);
+        loadElectoralVotesCSV(STATE_INFO_CSV);
+        CountyDataset.load(CountyDataset.DEFAULT_PATH);   // parses in the background while the XLSX loads
+        loadVoteResultsXLSX(VOTE_RESULTS_XLSX);
+        loadCountyTimeline(CountyDataset.DEFAULT_PATH);
+
+        if (USE_SNAPSHOT && timeIndex != null) {
+            try {
+                DataSnapshot.write(snapshot, checksum, CountyDataset.states(), votes, timeIndex.counties());
+                System.out.println("Saved startup snapshot to " + snapshot + ".");
+            } catch (IOException e) {
+                System.out.println("⚠️  Could not save snapshot: " + e.getMessage());
             }
         }
-        System.out.println("Loaded " + voteResults.size() + " state vote results.");
     }
 
-    private static int safeInt(Cell c) {
+    /** Builds the as-of time index from county return times (optional: partial results fall back to states only). */
+    private static void loadCountyTimeline(String filename) {
         try {
-            if (c == null) return 0;
-            if (c.getCellType() == CellType.NUMERIC) return (int) c.getNumericCellValue();
-            if (c.getCellType() == CellType.STRING)  return Integer.parseInt(c.getStringCellValue().trim());
-        } catch (Exception ignore) {}
-        return 0;
+            indexCountyTimeline(CountyDataset.get(filename));
+        } catch (IOException e) {
+            System.out.println("⚠️  County return times unavailable: " + e.getMessage());
+        }
+    }
+
+    private static void indexCountyTimeline(CountyData counties) {
+        timeIndex = new TimeIndex(counties, votes);
+        System.out.println("Indexed " + timeIndex.eventCount() + " county return times.");
+    }
+
+    /** Reads vote results from Excel (Apache POI); see {@link VoteResultsXlsx} for the sheet layout. */
+    private static void loadVoteResultsXLSX(String filename) throws IOException {
+        VoteResultsXlsx.load(new File(filename), votes, STREAM_XLSX);
+        System.out.println("Loaded " + votes.reportedCount() + " state vote results.");
     }
 
     // ----------------------------- CALCULATIONS -----------------------------
-    private static Map<String, Map<String, Double>> calculateStatePercentages() {
-        Map<String, Map<String, Double>> result = new HashMap<>();
-        for (String state : voteResults.keySet()) {
-            Map<String, Integer> votes = voteResults.get(state);
-            int total = votes.get("A") + votes.get("B");
-            if (total > 0) {
-                double aPct = (votes.get("A") * 100.0) / total;
-                double bPct = (votes.get("B") * 100.0) / total;
-                Map<String, Double> pct = new HashMap<>();
-                pct.put("A", aPct);
-                pct.put("B", bPct);
-                result.put(state, pct);
-            }
-        }
-        return result;
+    private static long[] calculatePopularVotes() {
+        return votes.popularTotals();
     }
 
-    private static int[] calculatePopularVotes() {
-        int aTotal = 0, bTotal = 0;
-        for (Map<String, Integer> votes : voteResults.values()) {
-            aTotal += votes.get("A");
-            bTotal += votes.get("B");
-        }
-        return new int[]{aTotal, bTotal};
+    private static int[] calculateElectoralVotes(TallyEngine.Tally tally) {
+        return votes.electoralTotals(tally);
     }
 
-    private static int[] calculateElectoralVotes() {
-        int aEV = 0, bEV = 0;
-        for (String state : voteResults.keySet()) {
-            Map<String, Integer> votes = voteResults.get(state);
-            int a = votes.get("A");
-            int b = votes.get("B");
-            if (electoralVotes.containsKey(state)) {
-                int ev = electoralVotes.get(state);
-                if (a > b) aEV += ev;
-                else if (b > a) bEV += ev;
+    // ----------------------------- OUTPUT -----------------------------
+    private static void printStatePercentages(TallyEngine.Tally tally, PrintStream out) {
+        out.println("\n========== STATE PERCENTAGES ==========");
+        for (int st : votes.reportedOrdinals()) {
+            if (tally.total(st) <= 0) continue;
+            StringBuilder line = new StringBuilder(votes.id(st)).append(":");
+            for (int c = 0; c < votes.candidates(); c++) {
+                line.append(c == 0 ? " " : " | ")
+                    .append(String.format("%s %.2f%%", candidateName(c), tally.share(c, st)));
             }
+            out.println(line);
         }
-        return new int[]{aEV, bEV};
     }
 
-    // ----------------------------- OUTPUT -----------------------------
-    private static void printStatePercentages(Map<String, Map<String, Double>> percentages) {
-        System.out.println("\n========== STATE PERCENTAGES ==========");
-        for (String state : percentages.keySet()) {
-            Map<String, Double> pct = percentages.get(state);
-            System.out.printf("%s: %s %.2f%% | %s %.2f%%%n",
-                    state, candidateA, pct.get("A"), candidateB, pct.get("B"));
-        }
-    }
-
-    private static void printPopularVoteResults(int[] totals) {
-        System.out.println("\n========== POPULAR VOTE ==========");
-        System.out.println(candidateA + " Total Votes: " + totals[0]);
-        System.out.println(candidateB + " Total Votes: " + totals[1]);
-        if (totals[0] > totals[1])
-            System.out.println("Popular Vote Winner: " + candidateA);
-        else if (totals[1] > totals[0])
-            System.out.println("Popular Vote Winner: " + candidateB);
+    private static void printPopularVoteResults(long[] totals, PrintStream out) {
+        out.println("\n========== POPULAR VOTE ==========");
+        for (int c = 0; c < totals.length; c++) {
+            out.println(candidateName(c) + " Total Votes: " + totals[c]);
+        }
+        int winner = TallyEngine.leader(totals);
+        if (winner != TallyEngine.TIE)
+            out.println("Popular Vote Winner: " + candidateName(winner));
         else
-            System.out.println("Popular Vote Result: Tie");
+            out.println("Popular Vote Result: Tie");
     }
 
-    private static void printElectoralSummary(int[] evTotals, int[] popularTotals) {
-        System.out.println("\n========== ELECTION SUMMARY ==========");
-        System.out.println("Candidate     | Popular Votes | Electoral Votes");
-        System.out.println("---------------------------------------------");
-        System.out.printf("%-14s | %13d | %14d%n", candidateA, popularTotals[0], evTotals[0]);
-        System.out.printf("%-14s | %13d | %14d%n", candidateB, popularTotals[1], evTotals[1]);
-        System.out.println("---------------------------------------------");
+    private static void printElectoralSummary(int[] evTotals, long[] popularTotals, PrintStream out) {
+        out.println("\n========== ELECTION SUMMARY ==========");
+        out.println("Candidate     | Popular Votes | Electoral Votes");
+        out.println("---------------------------------------------");
+        for (int c = 0; c < evTotals.length; c++) {
+            out.printf("%-14s | %13d | %14d%n", candidateName(c), popularTotals[c], evTotals[c]);
+        }
+        out.println("---------------------------------------------");
 
-        if (evTotals[0] > evTotals[1])
-            System.out.println("Winner:" + candidateA);
-        else if (evTotals[1] > evTotals[0])
-            System.out.println("Winner:" + candidateB);
+        int winner = TallyEngine.leader(evTotals);
+        if (winner != TallyEngine.TIE)
+            out.println("Winner:" + candidateName(winner));
         else
-            System.out.println("Result: Tie");
+            out.println("Result: Tie");
     }
 
-    private static void displayStateSummary(String state) {
-        if (!voteResults.containsKey(state)) {
-            System.out.println("State not found.");
+    private static void displayStateSummary(String state, PrintStream out) {
+        int st = votes.ordinal(state);
+        if (!votes.reported(st)) {
+            out.println("State not found.");
             return;
         }
-        Map<String, Integer> votes = voteResults.get(state);
-        int total = votes.get("A") + votes.get("B");
-        double aPct = (votes.get("A") * 100.0) / total;
-        double bPct = (votes.get("B") * 100.0) / total;
-        String winner = votes.get("A") > votes.get("B") ? candidateA :
-                        votes.get("B") > votes.get("A") ? candidateB : "Tie";
-        int ev = electoralVotes.getOrDefault(state, 0);
-
-        System.out.println("\nSummary for " + state);
-        System.out.println("Total Votes: " + total);
-        System.out.printf("%s: %d (%.2f%%)%n", candidateA, votes.get("A"), aPct);
-        System.out.printf("%s: %d (%.2f%%)%n", candidateB, votes.get("B"), bPct);
-        System.out.println("Winner: " + winner);
-        System.out.println("Electoral Votes: " + ev);
+        long[] row = new long[votes.candidates()];
+        long total = 0;
+        for (int c = 0; c < row.length; c++) {
+            row[c] = votes.votes(c, st);
+            total += row[c];
+        }
+        int w = TallyEngine.leader(row);
+        String winner = (w != TallyEngine.TIE) ? candidateName(w) : "Tie";
+        int ev = votes.electoral(st);
+
+        out.println("\nSummary for " + state);
+        out.println("Total Votes: " + total);
+        for (int c = 0; c < row.length; c++) {
+            out.printf("%s: %d (%.2f%%)%n", candidateName(c), row[c], (row[c] * 100.0) / total);
+        }
+        out.println("Winner: " + winner);
+        out.println("Electoral Votes: " + ev);
     }
 
     // ----------------------------- SIMULATION -----------------------------
     private static void simulatePartialResults(Scanner in) {
-        System.out.print("\nEnter report cutoff hour (e.g., 12 or 18): ");
-        int hour;
+        System.out.print("\nEnter report cutoff time (e.g., 12, 18 or 21:37): ");
+        int cutoff;
         try {
-            hour = Integer.parseInt(in.nextLine().trim());
+            cutoff = parseClock(in.nextLine());
         } catch (Exception e) {
             System.out.println("Invalid input. Skipping simulation.");
             return;
         }
+        printPartialResults(cutoff, System.out);
+    }
+
+    /** Partial results at {@code cutoff} (seconds after midnight): the states model, then real county returns. */
+    private static void printPartialResults(int cutoff, PrintStream out) {
+        double hour = cutoff / 3600.0;
 
-        List<String> sortedStates = new ArrayList<>(voteResults.keySet());
-        Collections.sort(sortedStates);
-        int totalStates = sortedStates.size();
+        int[] reported = votes.reportedOrdinals();
+        Integer[] sortedStates = new Integer[reported.length];
+        for (int i = 0; i < reported.length; i++) sortedStates[i] = reported[i];
+        Arrays.sort(sortedStates, Comparator.comparing(votes::id));
+        int totalStates = sortedStates.length;
         int statesReported = (int) Math.floor((hour / 24.0) * totalStates);
 
-        int partialA = 0, partialB = 0, partialAEV = 0, partialBEV = 0;
+        int k = votes.candidates();
+        long[] partialVotes = new long[k];
+        int[] partialEV = new int[k];
+        long[] row = new long[k];
         for (int i = 0; i < statesReported; i++) {
-            String st = sortedStates.get(i);
-            Map<String, Integer> votes = voteResults.get(st);
-            partialA += votes.get("A");
-            partialB += votes.get("B");
-            if (votes.get("A") > votes.get("B"))
-                partialAEV += electoralVotes.getOrDefault(st, 0);
-            else if (votes.get("B") > votes.get("A"))
-                partialBEV += electoralVotes.getOrDefault(st, 0);
+            int st = sortedStates[i];
+            for (int c = 0; c < k; c++) {
+                row[c] = votes.votes(c, st);
+                partialVotes[c] += row[c];
+            }
+            int w = TallyEngine.leader(row);
+            if (w != TallyEngine.TIE) partialEV[w] += votes.electoral(st);
         }
 
         double reportedPct = totalStates == 0 ? 0.0 : (statesReported * 100.0) / totalStates;
 
-        System.out.println("\n========== PARTIAL RESULTS ==========");
-        System.out.printf("Reporting Time: %02d:00 (%d/%d states, %.1f%%)%n",
-                hour, statesReported, totalStates, reportedPct);
-        System.out.println(candidateA + " Partial Votes: " + partialA);
-        System.out.println(candidateB + " Partial Votes: " + partialB);
-        System.out.println(candidateA + " Partial EV: " + partialAEV);
-        System.out.println(candidateB + " Partial EV: " + partialBEV);
+        out.println("\n========== PARTIAL RESULTS ==========");
+        out.printf("Reporting Time: %s (%d/%d states, %.1f%%)%n",
+                formatClock(cutoff), statesReported, totalStates, reportedPct);
+        for (int c = 0; c < k; c++) out.println(candidateName(c) + " Partial Votes: " + partialVotes[c]);
+        for (int c = 0; c < k; c++) out.println(candidateName(c) + " Partial EV: " + partialEV[c]);
+
+        // Same cutoff against the real county return times
+        TimeIndex.Snapshot snap = partialResultsAsOf(cutoff);
+        if (snap == null) return;
+        CountyData counties = timeIndex.counties();
+        out.println("\n========== COUNTY RETURNS AS OF " + ReplayEngine.formatTime(snap.time) + " ==========");
+        out.printf("%d/%d counties, %d states reporting%n",
+                snap.countiesReported, snap.countiesTotal, snap.statesReporting);
+        for (int c = 0; c < snap.votes.length; c++) {
+            out.println(counties.candidateName(c) + " Votes: " + snap.votes[c] + " | EV: " + snap.electoral[c]);
+        }
+    }
+
+    /**
+     * Partial results from county return times, as of a clock time (seconds
+     * after midnight) on election night. Null if no county timeline is loaded.
+     */
+    public static TimeIndex.Snapshot partialResultsAsOf(int secondsOfDay) {
+        if (timeIndex == null) return null;
+        return timeIndex.asOf(timeIndex.resolveClock(secondsOfDay));
+    }
+
+    /** "18" -> 18:00, "21:37" or "21:37:05" -> seconds after midnight. */
+    static int parseClock(String text) {
+        String[] parts = text.trim().split(":");
+        if (parts.length > 3) throw new NumberFormatException(text);
+        int h = Integer.parseInt(parts[0].trim());
+        int m = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 0;
+        int sec = parts.length > 2 ? Integer.parseInt(parts[2].trim()) : 0;
+        if (h < 0 || h > 24 || m < 0 || m > 59 || sec < 0 || sec > 59) throw new NumberFormatException(text);
+        return h * 3600 + m * 60 + sec;
+    }
+
+    private static String formatClock(int seconds) {
+        return seconds % 60 == 0
+                ? String.format("%02d:%02d", seconds / 3600, (seconds / 60) % 60)
+                : String.format("%02d:%02d:%02d", seconds / 3600, (seconds / 60) % 60, seconds % 60);
+    }
+
+    /**
+     * Replays county returns in "Return Time" order. A speed-up of 600 plays
+     * ten minutes of election night per second; 0 replays instantly.
+     */
+    private static void replayElectionNight(double speedup) throws IOException, InterruptedException {
+        loadData();
+        if (timeIndex == null) throw new FileNotFoundException(CountyDataset.DEFAULT_PATH);
+        CountyData counties = timeIndex.counties();
+        ReplayEngine replay = new ReplayEngine(timeIndex, votes);
+        int k = counties.candidates();
+
+        System.out.println("\n========== ELECTION NIGHT REPLAY ==========");
+        System.out.printf("%d county returns, %.0fx speed%n", replay.eventCount(), speedup);
+
+        final long[] nextReport = {Long.MIN_VALUE};
+        final int[] lastWinner = new int[counties.states.size()];
+        Arrays.fill(lastWinner, TallyEngine.TIE);
+        replay.play(speedup, (engine, county) -> {
+            int st = counties.state[county];
+            int w = engine.stateWinner(st);
+            if (w != lastWinner[st]) {
+                lastWinner[st] = w;
+                System.out.printf("[%s] %s now leans %s%n", ReplayEngine.formatTime(engine.currentTime()),
+                        counties.stateId(county), w == TallyEngine.TIE ? "nobody (tied)" : counties.candidateName(w));
+            }
+            // National line every 15 minutes of election time
+            if (engine.currentTime() >= nextReport[0] || !engine.hasNext()) {
+                nextReport[0] = engine.currentTime() + 15 * 60;
+                StringBuilder line = new StringBuilder("[" + ReplayEngine.formatTime(engine.currentTime()) + "] "
+                        + engine.eventsApplied() + "/" + engine.eventCount() + " counties |");
+                for (int c = 0; c < k; c++) {
+                    line.append(" ").append(counties.candidateName(c)).append(" ")
+                        .append(engine.nationalVotes(c)).append(" (EV ").append(engine.electoralVotes(c)).append(")");
+                }
+                System.out.println(line);
+            }
+        });
+    }
+
+    // ----------------------------- LIVE INGEST -----------------------------
+    /**
+     * Loads everything, opens the national map (unless headless) and then
+     * applies each re-export of the result files in data/ as a delta via
+     * {@link DeltaIngest}, printing what changed and the new electoral totals.
+     * The startup snapshot goes stale as files change and is rebuilt on the
+     * next normal start. With a {@code server}, its cached responses are
+     * rebuilt after each change instead of a map being opened.
+     */
+    private static void watchResults(ResultsServer server) throws IOException, InterruptedException {
+        if (server == null) loadData();
+        DeltaIngest ingest = new DeltaIngest(CountyDataset.DEFAULT_PATH, STATE_INFO_CSV, VOTE_RESULTS_XLSX,
+                votes, CountyDataset.get(CountyDataset.DEFAULT_PATH), STREAM_XLSX);
+        if (server == null && !GraphicsEnvironment.isHeadless()) TheVizzardMap.displayNationalMap();
+
+        ingest.watch(u -> {
+            if (server != null) server.setCounties(ingest.counties());
+            StringBuilder line = new StringBuilder(String.format("[%s] %s: ",
+                    java.time.LocalTime.now().withNano(0), u.file));
+            if (u.reloaded) line.append(String.format("reloaded %,d rows", u.changed));
+            else line.append(String.format("%,d changed in %d states (%,d of %,d rows re-read)",
+                    u.changed, u.statesTouched, u.parsed, u.scanned));
+            line.append(" | states EV");
+            for (int c = 0; c < u.stateEv.length; c++) line.append(" ").append(votes.candidateName(c)).append(" ").append(u.stateEv[c]);
+            line.append(" | counties EV");
+            CountyData counties = ingest.counties();
+            for (int c = 0; c < u.countyEv.length; c++) {
+                line.append(" ").append(counties.candidateName(c)).append(" ").append(u.countyEv[c]);
+            }
+            line.append(String.format(" | %.1f ms", u.latencyNanos / 1e6));
+            System.out.println(line);
+        });
+    }
+
+    /** Loads everything, serves it with {@link ResultsServer} and keeps it current via {@link #watchResults}. */
+    private static void serveResults(int port) throws IOException, InterruptedException {
+        loadData();
+        // Read once, when the JDK's HTTP server classes load; see ResultsServer
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        ResultsServer server = new ResultsServer(votes, CountyDataset.get(CountyDataset.DEFAULT_PATH));
+        int bound = server.start(port);
+        System.out.println("🌐 Serving results on http://127.0.0.1:" + bound
+                + "/api/{national, states, states/XX, states/XX/counties, asof?time=HH:MM}");
+        watchResults(server);
+    }
+
+    // ----------------------------- COUNTY AGGREGATION -----------------------------
+    /**
+     * Builds state and national results from county rows with
+     * {@link CountyAggregator}, cross-checks them against Vote-Results.xlsx
+     * and reports the fork/join speedup over a single-threaded pass.
+     */
+    private static void aggregateCounties(String countyCsv) throws IOException {
+        loadData();
+        CountyData counties = CountyDataset.get(countyCsv);
+
+        // Warm both paths, then keep the best of several runs
+        CountyAggregator.Totals totals = null;
+        for (int i = 0; i < 3; i++) {
+            CountyAggregator.sequential(counties);
+            totals = CountyAggregator.parallel(counties);
+        }
+        long seq = Long.MAX_VALUE, par = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            long t0 = System.nanoTime();
+            CountyAggregator.sequential(counties);
+            long t1 = System.nanoTime();
+            totals = CountyAggregator.parallel(counties);
+            long t2 = System.nanoTime();
+            seq = Math.min(seq, t1 - t0);
+            par = Math.min(par, t2 - t1);
+        }
+
+        long[] national = totals.national();
+        int[] ev = totals.electoralTotals(votes);
+        System.out.println("\n========== COUNTY-BUILT RESULTS ==========");
+        for (int c = 0; c < national.length; c++) {
+            System.out.printf("%s: %,d votes | EV: %d%n", counties.candidateName(c), national[c], ev[c]);
+        }
+
+        System.out.println("\n========== CROSS-CHECK ==========");
+        for (String line : CountyAggregator.crossCheck(totals, counties, votes)) System.out.println(line);
+
+        System.out.println("\n========== SPEEDUP ==========");
+        System.out.printf("%,d county rows: sequential %.3f ms, fork/join %.3f ms on %d threads (%.2fx)%n",
+                counties.size(), seq / 1e6, par / 1e6, ForkJoinPool.commonPool().getParallelism(), (double) seq / par);
+    }
+
+    // ----------------------------- MONTE CARLO -----------------------------
+    /**
+     * Counts everything reported by the clock time {@code when} ("final"
+     * counts every county) and runs {@link MonteCarlo} over the rest: win
+     * probabilities per state, the electoral vote distribution and the states
+     * most often tipping the majority.
+     */
+    private static void simulateOutcomes(String when, long runs) throws IOException {
+        loadData();
+        if (timeIndex == null) throw new FileNotFoundException(CountyDataset.DEFAULT_PATH);
+        CountyData counties = timeIndex.counties();
+        if (counties.candidates() != 2) {
+            List<String> names = new ArrayList<>();
+            for (int c = 0; c < counties.candidates(); c++) names.add(counties.candidateName(c));
+            throw new IllegalArgumentException("--simulate needs exactly two candidates; " + CountyDataset.DEFAULT_PATH
+                    + " has " + names.size() + " " + names);
+        }
+        long cutoff = when.equalsIgnoreCase("final") ? Long.MAX_VALUE
+                : timeIndex.resolveClock(when.equalsIgnoreCase("now") ? java.time.LocalTime.now().toSecondOfDay() : parseClock(when));
+
+        MonteCarlo model = new MonteCarlo(counties, votes, cutoff);
+        model.run(Math.min(runs, 10_000), 1);   // warm-up
+        long t0 = System.nanoTime();
+        MonteCarlo.Result r = model.run(runs, System.nanoTime());
+        long elapsed = System.nanoTime() - t0;
+
+        String a = counties.candidateName(0), b = counties.candidateName(1);
+        System.out.printf("%n========== MONTE CARLO AS OF %s ==========%n",
+                cutoff == Long.MAX_VALUE ? "FINAL" : ReplayEngine.formatTime(cutoff));
+        System.out.printf("%,d counties counted, %,d projected | %,d runs%n",
+                model.countedCounties(), model.uncountedCounties(), r.runs);
+        System.out.printf("%s wins %.1f%% | %s wins %.1f%% | no majority %.1f%%%n",
+                a, pct(r.wins0, r.runs), b, pct(r.wins1, r.runs), pct(r.noMajority, r.runs));
+        System.out.printf("%s leads %s in the popular vote in %.1f%% of runs%n", a, b, pct(r.popularWins0, r.runs));
+        System.out.printf("%s EV: mean %.1f, median %d, 90%% of runs %d–%d (%d to win)%n", a, r.evMean(),
+                r.evQuantile(0.5), r.evQuantile(0.05), r.evQuantile(0.95), model.majority());
+
+        System.out.println("\n========== STATE WIN PROBABILITIES ==========");
+        Integer[] order = new Integer[model.states()];
+        for (int s = 0; s < order.length; s++) order[s] = s;
+        Arrays.sort(order, Comparator.comparing(counties.states::id));
+        for (int s : order) {
+            if (votes.electoral(s) == 0) continue;
+            double p = pct(r.stateWins[s], r.runs);
+            System.out.printf("%-3s (%2d EV): %s %5.1f%% | %s %5.1f%%%n",
+                    counties.states.id(s), votes.electoral(s), a, p, b, 100 - p);
+        }
+
+        System.out.println("\n========== " + a.toUpperCase() + " EV DISTRIBUTION ==========");
+        long peak = 1;
+        long[] bins = new long[r.evHistogram.length / 10 + 1];
+        for (int e = 0; e < r.evHistogram.length; e++) peak = Math.max(peak, bins[e / 10] += r.evHistogram[e]);
+        for (int i = 0; i < bins.length; i++) {
+            if (bins[i] == 0) continue;
+            System.out.printf("%3d–%3d | %-40s %5.1f%%%n", i * 10, Math.min(i * 10 + 9, r.evHistogram.length - 1),
+                    "█".repeat((int) Math.round(40.0 * bins[i] / peak)), pct(bins[i], r.runs));
+        }
+
+        System.out.println("\n========== TIPPING-POINT STATES ==========");
+        Arrays.sort(order, (x, y) -> Long.compare(r.tippingPoint[y], r.tippingPoint[x]));
+        for (int i = 0; i < Math.min(10, order.length) && r.tippingPoint[order[i]] > 0; i++) {
+            System.out.printf("%-3s %5.1f%%%n", counties.states.id(order[i]), pct(r.tippingPoint[order[i]], r.runs));
+        }
+
+        System.out.printf("%n⚡ %,d runs in %.0f ms on %d threads (%.1fM runs/s)%n", r.runs, elapsed / 1e6,
+                ForkJoinPool.commonPool().getParallelism(), r.runs / (elapsed / 1e3));
+    }
+
+    // ----------------------------- ELECTIONS -----------------------------
+    /**
+     * Loads each county CSV as one election of an {@link ElectionSet} and
+     * prints the {@link Swing} between consecutive ones: national and largest
+     * state and county shifts. Outside headless mode the last pair opens as a
+     * swing map, of the whole country or of the state given after the files.
+     */
+    private static void compareElections(String[] args) throws IOException {
+        List<String> files = new ArrayList<>();
+        String state = null;
+        for (String a : args) {
+            if (a.toLowerCase().endsWith(".csv")) files.add(a);
+            else state = a.toUpperCase();
+        }
+        if (files.size() < 2) throw new IllegalArgumentException("Usage: --swing earlier.csv later.csv [more.csv ...] [STATE]");
+
+        ElectionSet set = new ElectionSet();
+        for (String f : files) {
+            long start = System.nanoTime();
+            ElectionSet.Election e = set.load(f, new File(f));
+            System.out.printf("Loaded %,d counties of %s (%.1f ms).%n", e.data.size(), f, (System.nanoTime() - start) / 1e6);
+        }
+        System.out.printf("%,d distinct counties across %d elections.%n", set.counties(), set.size());
+
+        Swing last = null;
+        List<ElectionSet.Election> elections = set.elections();
+        for (int i = 1; i < elections.size(); i++) {
+            ElectionSet.Election from = elections.get(i - 1), to = elections.get(i);
+            Swing.compute(set, from, to, ForkJoinPool.commonPool());   // warm-up
+            long t0 = System.nanoTime();
+            Swing sw = Swing.compute(set, from, to, ForkJoinPool.commonPool());
+            long elapsed = System.nanoTime() - t0;
+            last = sw;
+
+            String a = sw.candidateName(0), b = sw.candidateName(1);
+            System.out.printf("%n========== SWING %s → %s ==========%n", from.label, to.label);
+            System.out.printf("%,d counties in both | national shift %s | turnout %+.1f%%%n",
+                    sw.matched, shiftText(sw.nationalShift, a, b), 100 * sw.nationalTurnout);
+
+            System.out.println("\n---------- Largest state shifts ----------");
+            for (int s : sw.largestStateShifts(10)) {
+                System.out.printf("%-3s %s%n", set.states().id(s), shiftText(sw.stateShift[s], a, b));
+            }
+            System.out.println("\n---------- Largest county shifts ----------");
+            for (int k : sw.largestCountyShifts(10)) {
+                System.out.printf("%-24s %-3s %s | turnout %+.1f%%%n", set.countyName(k), set.states().id(set.countyState(k)),
+                        shiftText(sw.shift[k], a, b), 100 * sw.turnout[k]);
+            }
+            System.out.printf("%n⚡ Swing over %,d counties in %.2f ms on %d threads%n", set.counties(), elapsed / 1e6,
+                    ForkJoinPool.commonPool().getParallelism());
+        }
+
+        if (!GraphicsEnvironment.isHeadless()) TheVizzardMap.displaySwingMap(last, state);
+    }
+
+    /** "3.2 pts towards A" for a shift of candidate 0's margin (negative: towards B). */
+    private static String shiftText(double shift, String a, String b) {
+        if (Double.isNaN(shift)) return "n/a";
+        return String.format("%.1f pts towards %s", Math.abs(shift), shift >= 0 ? a : b);
+    }
+
+    private static double pct(long part, long whole) {
+        return whole == 0 ? 0.0 : part * 100.0 / whole;
+    }
+
+    // ----------------------------- BATCH -----------------------------
+    /**
+     * Non-interactive run: the summaries go to text files, and the chart, the
+     * national map and one map per state are rendered to PNG on a thread pool.
+     * No stdin and no windows, so it runs headless.
+     */
+    private static void runBatch(BatchConfig config) throws Exception {
+        long start = System.nanoTime();
+        candidateA = config.candidateA;
+        candidateB = config.candidateB;
+        loadData();
+
+        TallyEngine.Tally tally = votes.tally();
+        int[] electoralTotals = calculateElectoralVotes(tally);
+        long[] popularTotals = calculatePopularVotes();
+
+        File outDir = config.outDir;
+        File stateDir = new File(outDir, "states");
+        File mapDir = new File(outDir, "maps");
+        Files.createDirectories(stateDir.toPath());
+        Files.createDirectories(mapDir.toPath());
+
+        List<String> states = config.states;
+        if (states == null) {
+            states = new ArrayList<>();
+            for (int st : votes.reportedOrdinals()) states.add(votes.id(st));
+        }
+
+        // Map panels are built here and only painted on the pool
+        Map<File, TheVizzardMap> maps = new LinkedHashMap<>();
+        if (timeIndex != null) {
+            CountyData counties = timeIndex.counties();
+            File imageFile = new File(TheVizzardMap.MAP_IMAGE);
+            Image base = imageFile.exists() ? ImageIO.read(imageFile) : null;
+            maps.put(new File(outDir, "map-national.png"), new TheVizzardMap(counties, base, null));
+            for (String st : states) maps.put(new File(mapDir, st + ".png"), new TheVizzardMap(counties, base, st));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(config.threads);
+        List<Future<File>> jobs = new ArrayList<>();
+        int failed = 0;
+        try {
+            jobs.add(pool.submit(() -> writeReport(new File(outDir, "summary.txt"), out -> {
+                printStatePercentages(tally, out);
+                printPopularVoteResults(popularTotals, out);
+                printElectoralSummary(electoralTotals, popularTotals, out);
+                if (config.cutoff >= 0) printPartialResults(config.cutoff, out);
+            })));
+            for (String st : states) {
+                jobs.add(pool.submit(() -> writeReport(new File(stateDir, st + ".txt"), out -> displayStateSummary(st, out))));
+            }
+            jobs.add(pool.submit(() -> writePng(renderResultChart(popularTotals, electoralTotals, 600, 400),
+                    new File(outDir, "chart.png"))));
+            for (Map.Entry<File, TheVizzardMap> m : maps.entrySet()) {
+                jobs.add(pool.submit(() -> writePng(m.getValue().render(config.mapWidth, config.mapHeight), m.getKey())));
+            }
+
+            for (Future<File> job : jobs) {
+                try {
+                    job.get();
+                } catch (ExecutionException e) {
+                    failed++;
+                    System.out.println("❌ " + e.getCause().getMessage());
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        System.out.printf("✅ Batch complete: %d files in %s using %d threads (%.0f ms).%n",
+                jobs.size() - failed, outDir, config.threads, (System.nanoTime() - start) / 1e6);
+        if (failed > 0) throw new IOException(failed + " batch outputs failed");
+    }
+
+    private static File writeReport(File file, Consumer<PrintStream> body) throws IOException {
+        try (PrintStream out = new PrintStream(new FileOutputStream(file), false, "UTF-8")) {
+            body.accept(out);
+            if (out.checkError()) throw new IOException("Could not write " + file);
+        }
+        return file;
+    }
+
+    private static File writePng(BufferedImage img, File file) throws IOException {
+        if (!ImageIO.write(img, "png", file)) throw new IOException("No PNG writer for " + file);
+        return file;
     }
 
     // ----------------------------- VISUALIZATION -----------------------------
-    private static void showResultChart(int[] popular, int[] ev) {
+    private static void showResultChart(long[] popular, int[] ev) {
         JFrame frame = new JFrame("The Vizzard — Election Results");
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         frame.setSize(600, 400);
@@ -333,29 +794,49 @@ public class TheVizzard {
         JPanel panel = new JPanel() {
             protected void paintComponent(Graphics g) {
                 super.paintComponent(g);
-                int baseY = getHeight() - 60;
-                int barWidth = 150;
-                int maxVotes = Math.max(popular[0] + ev[0], popular[1] + ev[1]);
-                if (maxVotes <= 0) return;
-
-                g.setFont(new Font("SansSerif", Font.BOLD, 14));
-                g.drawString(candidateA + " (Green)", 80, 30);
-                g.drawString(candidateB + " (Magenta)", 320, 30);
-
-                int heightA = (int) ((popular[0] / (double) maxVotes) * 200);
-                g.setColor(Color.GREEN);
-                g.fillRect(100, baseY - heightA, barWidth, heightA);
-
-                int heightB = (int) ((popular[1] / (double) maxVotes) * 200);
-                g.setColor(Color.MAGENTA);
-                g.fillRect(350, baseY - heightB, barWidth, heightB);
-
-                g.setColor(Color.BLACK);
-                g.drawString("Popular + EV Comparison", 200, baseY + 30);
+                drawResultChart(g, getWidth(), getHeight(), popular, ev);
             }
         };
 
         frame.add(panel);
         frame.setVisible(true);
     }
+
+    /** The result chart drawn offscreen, for batch mode. */
+    static BufferedImage renderResultChart(long[] popular, int[] ev, int width, int height) {
+        BufferedImage img = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = img.createGraphics();
+        g.setColor(new JPanel().getBackground());
+        g.fillRect(0, 0, width, height);
+        drawResultChart(g, width, height, popular, ev);
+        g.dispose();
+        return img;
+    }
+
+    private static void drawResultChart(Graphics g, int width, int height, long[] popular, int[] ev) {
+        int baseY = height - 60;
+        int n = popular.length;
+        long maxVotes = 0;
+        for (int c = 0; c < n; c++) maxVotes = Math.max(maxVotes, popular[c] + ev[c]);
+        if (maxVotes <= 0) return;
+
+        // Two candidates keep the original 100/350 layout; more share the width evenly
+        int slot = Math.max(1, (width - 100) / Math.max(n, 1));
+        int barWidth = Math.max(4, Math.min(150, slot * 3 / 5));
+        if (n <= 2) { slot = 250; barWidth = 150; }
+
+        g.setFont(new Font("SansSerif", Font.BOLD, 14));
+        for (int c = 0; c < n; c++) {
+            int x = 100 + c * slot;
+            g.setColor(Color.BLACK);
+            g.drawString(candidateName(c) + " (" + getCandidateColorName(c) + ")", x - 20, 30 + (n > 4 ? (c % 2) * 16 : 0));
+
+            int h = (int) ((popular[c] / (double) maxVotes) * 200);
+            g.setColor(getCandidateColor(c));
+            g.fillRect(x, baseY - h, barWidth, h);
+        }
+
+        g.setColor(Color.BLACK);
+        g.drawString("Popular + EV Comparison", 200, baseY + 30);
+    }
 }
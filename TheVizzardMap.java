@@ -1,116 +1,518 @@
 import java.awt.*;
+import java.awt.event.*;
+import java.awt.image.BufferedImage;
 import javax.swing.*;
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * 🗺️ TheVizzardMap
  * Displays election results as colored county plots on a U.S. map background.
  * Green = Candidate A
  * Magenta = Candidate B
+ * (further candidates follow TheVizzard's palette; ties are gray)
+ *
+ * Counties are placed by a {@link MapProjection} (equirectangular by default,
+ * -Dvizzard.map.projection=albers for equal-area) and fitted to the panel by
+ * {@link ProjectedCounties}: the national view spans the lower 48, a state
+ * view zooms to that state's counties. Projected screen positions are cached
+ * per (state, panel size), so a paint only applies the zoom and pan.
+ *
+ * Painting goes through two cached layers: the scaled base map and the county
+ * dots. Both are rebuilt only when the panel size, the view, the focus state
+ * or the county data change; an ordinary repaint just blits them. Rebuilding
+ * the dots only touches counties in the viewport (via {@link CountyGrid}) or
+ * in the focus state (via its per-state range). The base map image is
+ * equirectangular, so other projections draw the counties on a plain background.
+ *
+ * When the counties in view would cover more than half of it in dots (the
+ * national view of precinct-scale data), that layer is a {@link CountyHeatmap}
+ * instead: colour by summed leader, strength by margin, opacity by votes.
+ * Zooming in far enough, or focusing one state, switches back to dots.
+ * -Dvizzard.map.render=dots|heat forces either.
+ *
+ * Mouse: wheel zooms about the cursor, drag pans, double-click resets the
+ * view, and hovering a dot shows that county's name, FIPS and votes.
+ *
+ * In swing mode ({@link #setSwing}) dots are coloured by each county's shift
+ * between two elections instead: towards candidate A's colour or B's, gray
+ * when unchanged, stronger up to {@link #FULL_SHIFT} points.
+ *
+ * A panel that {@link #follow}s its CSV picks up live results published by
+ * {@link DeltaIngest}: changed counties are re-decided and their dots redrawn
+ * straight onto the cached layer, without a rebuild.
  */
 public class TheVizzardMap extends JPanel {
 
-    private static class County {
-        double lat, lon;
-        String stateId, winner;
-        County(String stateId, double lat, double lon, String winner) {
-            this.stateId = stateId;
-            this.lat = lat;
-            this.lon = lon;
-            this.winner = winner;
-        }
-    }
+    /** Base map behind the county dots. */
+    static final String MAP_IMAGE = "data/us_map.jpg";
+
+    private static final int DOT = 5;
+    /** Dot area over view area above which the national view draws a heatmap. */
+    private static final double MAX_DOT_COVER = 0.5;
+    private static final String RENDER = System.getProperty("vizzard.map.render", "auto").toLowerCase();
+    private static final double MAX_ZOOM = 64;
+    /** Shift (points) drawn at full colour in swing mode; shades step every {@code FULL_SHIFT / SWING_STEPS}. */
+    static final double FULL_SHIFT = 20;
+    private static final int SWING_STEPS = 8;
+    private static final Color NO_SWING = new Color(205, 205, 205);
 
-    private final java.util.List<County> counties = new ArrayList<>();
+    private CountyData counties;
+    private MapProjection projection = MapProjection.fromSystemProperty();
+    private ProjectedCounties projected;
+    private int[] visible = new int[0];         // scratch: frame indexes in view
+    private int[] winners = new int[0];        // per county: candidate index or TallyEngine.TIE
+    private Swing swing;                        // non-null in swing mode
+    private int[] swingShade;                   // per county: index into swingPalette, -1 if no shift
+    private Color[] swingPalette;
     private final Image mapImage;
-    private final String focusState;
+    private String focusState;
+    private int focusOrdinal = -1;              // state ordinal of focusState, -1 when national
+
+    // View: screen = frame position * zoom + pan
+    private double zoom = 1, panX, panY;
+    private int viewVersion;
+    private Point dragFrom;
+
+    // Cached layers and the view they were drawn with
+    private BufferedImage baseLayer, dotLayer;
+    private int layerWidth = -1, layerHeight = -1;
+    private int dataVersion, layerDataVersion = -1;
+    private int layerViewVersion = -1;
+    private boolean layerHeat;                  // dot layer currently holds the heatmap
+    private final CountyHeatmap heatmap = new CountyHeatmap();
+    private String layerFocus;
+    private ProjectedCounties.Frame layerFrame;
+
+    private static final Metrics.Timer FRAME = Metrics.timer("render.map.frame");
+    private static final Metrics.Timer LAYER = Metrics.timer("render.map.dots");
+    private static final Metrics.Timer HOVER = Metrics.timer("render.map.hover");
+    private static final Metrics.Timer LIVE = Metrics.timer("live.change-to-screen");
+
+    // Repaint latency and hit-test counters
+    private long paints, paintNanos, maxPaintNanos, layerRebuilds;
+    private int lastDrawn;
+    private long hovers, hoverNanos;
+
+    // Live updates: change noticed -> first paint showing it
+    private CountyDataset.UpdateListener follower;
+    private long pendingUpdateNanos, liveUpdates, lastUpdateNanos, maxUpdateNanos;
 
     public TheVizzardMap(String csvPath, String mapPath, String focusState) throws IOException {
-        this.focusState = (focusState != null && !focusState.isEmpty()) ? focusState.toUpperCase() : null;
-        mapImage = new ImageIcon(mapPath).getImage();
-        loadCounties(csvPath);
+        this(CountyDataset.get(csvPath), new ImageIcon(mapPath).getImage(), focusState);
     }
 
-    /** Load county data from CSV. Handles flexible header names. */
-    private void loadCounties(String csvPath) throws IOException {
-        File file = new File(csvPath);
-        if (!file.exists()) {
-            System.out.println("❌ Counties CSV not found: " + csvPath);
-            return;
+    /** Panel over already-loaded counties; nothing is parsed here, so this is safe on the EDT. */
+    public TheVizzardMap(CountyData data, Image mapImage, String focusState) {
+        this.mapImage = mapImage;
+        setCounties(data);
+        setFocusState(focusState);
+        installMouse();
+    }
+
+    // ----------------------------- STATE -----------------------------
+    /** Replaces the county data; winners are tallied in one sweep and the dot layer is redrawn. */
+    public void setCounties(CountyData data) {
+        if (swing != null && swing.to.data != data) {
+            swing = null;   // new rows; the shift no longer lines up with them
+            swingShade = null;
         }
+        counties = data;
+        if (projected == null || !projected.covers(data, projection)) projected = CountyDataset.projected(data, projection);
+        if (visible.length < data.size()) visible = new int[data.size()];
+        winners = TallyEngine.tally(data.votes, data.size()).winner;
+        focusOrdinal = focusState == null ? -1 : data.states.ordinal(focusState);
+        dataVersion++;
+        repaint();
+    }
 
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            String headerLine = br.readLine();
-            if (headerLine == null) return;
+    /**
+     * New results for {@code rows} of the current table. Only those counties
+     * are re-decided and, if the dot layer is current, repainted onto it.
+     */
+    public void updateCounties(CountyData data, int[] rows) {
+        counties = data;
+        long[] v = new long[data.candidates()];
+        for (int j : rows) {
+            for (int c = 0; c < v.length; c++) v[c] = data.votes[c][j];
+            winners[j] = TallyEngine.leader(v);
+        }
 
-            String[] headers = headerLine.trim().split(",");
-            Map<String, Integer> idx = new HashMap<>();
-            for (int i = 0; i < headers.length; i++) {
-                idx.put(headers[i].trim().toLowerCase(), i);
+        // Same dot, same place: the new colour covers the old one exactly. A heatmap cell mixes
+        // many counties, so that layer is rebuilt instead. Swing colours do not follow live results.
+        if (layerHeat) {
+            dataVersion++;
+        } else if (swing == null && dotLayer != null && layerDataVersion == dataVersion && layerWidth == getWidth() && layerHeight == getHeight()) {
+            ProjectedCounties.Frame f = layerFrame;
+            Graphics2D g = dotLayer.createGraphics();
+            for (int j : rows) {
+                if (focusState != null && data.state[j] != focusOrdinal) continue;
+                int x = (int) (f.baseX(j) * zoom + panX), y = (int) (f.baseY(j) * zoom + panY);
+                if (x < -DOT || y < -DOT || x > layerWidth || y > layerHeight) continue;
+                g.setColor(winners[j] == TallyEngine.TIE ? Color.GRAY : TheVizzard.getCandidateColor(winners[j]));
+                g.fillOval(x, y, DOT, DOT);
             }
+            g.dispose();
+        }
+        repaint();
+    }
+
+    /**
+     * Colours each county of {@code s.to} by its shift since {@code s.from}
+     * (null goes back to winners). The map shows {@code s.to}'s counties.
+     */
+    public void setSwing(Swing s) {
+        if (s == null) {
+            swing = null;
+            swingShade = null;
+            dataVersion++;
+            repaint();
+            return;
+        }
+        setCounties(s.to.data);
+        swing = s;
+        // [0, STEPS) towards the swing's candidate 1, STEPS neutral, (STEPS, 2 * STEPS] towards its candidate 0,
+        // in the colours of their columns in s.to
+        swingPalette = new Color[2 * SWING_STEPS + 1];
+        for (int i = 0; i <= 2 * SWING_STEPS; i++) {
+            int step = i - SWING_STEPS;
+            Color towards = TheVizzard.getCandidateColor(s.toColumns[step >= 0 ? 0 : 1]);
+            swingPalette[i] = blend(NO_SWING, towards, Math.abs(step) / (double) SWING_STEPS);
+        }
+        int n = s.to.data.size();
+        swingShade = new int[n];
+        for (int j = 0; j < n; j++) {
+            float shift = s.shiftOfRow(j);
+            if (Float.isNaN(shift)) {
+                swingShade[j] = -1;
+                continue;
+            }
+            int step = (int) Math.round(shift / FULL_SHIFT * SWING_STEPS);
+            swingShade[j] = SWING_STEPS + Math.max(-SWING_STEPS, Math.min(SWING_STEPS, step));
+        }
+        dataVersion++;
+        repaint();
+    }
+
+    public Swing getSwing() { return swing; }
+
+    private static Color blend(Color from, Color to, double t) {
+        return new Color((int) Math.round(from.getRed() * (1 - t) + to.getRed() * t),
+                (int) Math.round(from.getGreen() * (1 - t) + to.getGreen() * t),
+                (int) Math.round(from.getBlue() * (1 - t) + to.getBlue() * t));
+    }
+
+    /** Dot colour for {@code code}: a winner (TallyEngine.TIE for ties) or, in swing mode, a swing shade. */
+    private Color dotColor(int code) {
+        if (swingShade != null) return code < 0 ? NO_SWING : swingPalette[code];
+        return code == TallyEngine.TIE ? Color.GRAY : TheVizzard.getCandidateColor(code);
+    }
+
+    /**
+     * Applies updates that {@link CountyDataset#update} publishes for
+     * {@code csvPath} until {@link #unfollow()}. Updates arrive on the ingest
+     * thread and are handed to the EDT.
+     */
+    public void follow(String csvPath) {
+        unfollow();
+        String key = new File(csvPath).getAbsolutePath();
+        follower = (path, before, after, rows, detected) -> {
+            if (!path.equals(key)) return;
+            SwingUtilities.invokeLater(() -> {
+                if (rows != null && counties == before) updateCounties(after, rows);
+                else setCounties(after);
+                if (pendingUpdateNanos == 0) pendingUpdateNanos = detected;
+            });
+        };
+        CountyDataset.addListener(follower);
+    }
+
+    public void unfollow() {
+        if (follower != null) CountyDataset.removeListener(follower);
+        follower = null;
+    }
+
+    /**
+     * Narrows the map to one state (null or empty for the whole country). The
+     * view is fitted to the state's counties, so zoom and pan start over.
+     */
+    public void setFocusState(String state) {
+        focusState = (state != null && !state.isEmpty()) ? state.toUpperCase() : null;
+        focusOrdinal = (focusState == null || counties == null) ? -1 : counties.states.ordinal(focusState);
+        resetView();
+    }
+
+    /** Re-projects the counties; the view is refitted on the next paint. */
+    public void setProjection(MapProjection p) {
+        projection = p;
+        if (counties != null) projected = CountyDataset.projected(counties, p);
+        resetView();
+    }
+
+    public MapProjection getProjection() { return projection; }
+
+    // ----------------------------- VIEW -----------------------------
+    /** Fitted frame for the current focus and panel size; cached, so this is a lookup. */
+    private ProjectedCounties.Frame frame(int w, int h) {
+        return projected.frame(focusState == null ? -1 : focusOrdinal, w, h);
+    }
+
+    // Screen <-> plane through the frame, then zoom and pan
+    private double planeXAt(ProjectedCounties.Frame f, double x) { return f.planeXAt((x - panX) / zoom); }
+    private double planeYAt(ProjectedCounties.Frame f, double y) { return f.planeYAt((y - panY) / zoom); }
+
+    /** Zooms by {@code factor} keeping the point under (x, y) fixed. */
+    public void zoomAbout(double factor, int x, int y) {
+        double z = Math.max(1, Math.min(MAX_ZOOM, zoom * factor));
+        panX = x - (x - panX) * z / zoom;
+        panY = y - (y - panY) * z / zoom;
+        zoom = z;
+        viewChanged();
+    }
+
+    public void panBy(int dx, int dy) {
+        panX += dx;
+        panY += dy;
+        viewChanged();
+    }
+
+    public void resetView() {
+        zoom = 1;
+        panX = panY = 0;
+        viewChanged();
+    }
+
+    private void viewChanged() {
+        viewVersion++;
+        repaint();
+    }
 
-            // Support multiple possible header styles
-            int latIdx   = idx.getOrDefault("lat", idx.getOrDefault("latitude", -1));
-            int lonIdx   = idx.getOrDefault("lng", idx.getOrDefault("longitude", -1));
-            int stateIdx = idx.getOrDefault("state_id", idx.getOrDefault("state", -1));
-            int aIdx     = idx.getOrDefault("a_votes", idx.getOrDefault("bb votes", -1));
-            int bIdx     = idx.getOrDefault("b_votes", idx.getOrDefault("rr votes", -1));
-
-            if (latIdx < 0 || lonIdx < 0 || aIdx < 0 || bIdx < 0 || stateIdx < 0) {
-                System.out.println("⚠️  Header mismatch: expected lat,lng,state_id,A_Votes,B_Votes");
-                System.out.println("Found headers: " + Arrays.toString(headers));
-                return;
+    private void installMouse() {
+        setToolTipText("");   // registers with the ToolTipManager; text comes from getToolTipText(MouseEvent)
+        MouseAdapter mouse = new MouseAdapter() {
+            @Override public void mousePressed(MouseEvent e)  { dragFrom = e.getPoint(); }
+            @Override public void mouseReleased(MouseEvent e) { dragFrom = null; }
+            @Override public void mouseDragged(MouseEvent e) {
+                if (dragFrom == null) return;
+                panBy(e.getX() - dragFrom.x, e.getY() - dragFrom.y);
+                dragFrom = e.getPoint();
             }
+            @Override public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) resetView();
+            }
+            @Override public void mouseWheelMoved(MouseWheelEvent e) {
+                zoomAbout(Math.pow(1.25, -e.getPreciseWheelRotation()), e.getX(), e.getY());
+            }
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+        addMouseWheelListener(mouse);
+    }
+
+    // ----------------------------- HIT TESTING -----------------------------
+    /** County row drawn under screen point (x, y), or -1. */
+    public int countyAt(int x, int y) {
+        if (projected == null || focusState != null && focusOrdinal < 0) return -1;
+        long start = System.nanoTime();
+        ProjectedCounties.Frame f = frame(getWidth(), getHeight());
+        double c = DOT / 2.0;   // dots are drawn with their corner on the projected point
+        int hit = projected.grid().nearest(planeYAt(f, y - c), planeXAt(f, x - c), f.sx * zoom, f.sy * zoom, DOT, focusOrdinal);
+        hovers++;
+        hoverNanos += HOVER.since(start);
+        return hit;
+    }
+
+    @Override
+    public String getToolTipText(MouseEvent e) {
+        int j = countyAt(e.getX(), e.getY());
+        if (j < 0) return null;
+        long total = 0;
+        for (int c = 0; c < counties.candidates(); c++) total += counties.votes[c][j];
+        StringBuilder sb = new StringBuilder("<html><b>")
+                .append(counties.names[j]).append(", ").append(counties.stateId(j)).append("</b>");
+        if (counties.fips[j] >= 0) sb.append("<br>FIPS ").append(String.format("%05d", counties.fips[j]));
+        for (int c = 0; c < counties.candidates(); c++) {
+            long v = counties.votes[c][j];
+            sb.append("<br>").append(TheVizzard.candidateName(c)).append(": ")
+              .append(String.format("%,d (%.1f%%)", v, total == 0 ? 0.0 : 100.0 * v / total));
+        }
+        if (swing != null) {
+            int k = swing.to.county(j);
+            float shift = swing.shift[k];
+            sb.append("<br>Shift since ").append(swing.from.label).append(": ")
+              .append(Float.isNaN(shift) ? "n/a" : String.format("%.1f pts towards %s, turnout %+.1f%%",
+                      Math.abs(shift), swing.candidateName(shift >= 0 ? 0 : 1), 100.0 * swing.turnout[k]));
+        }
+        return sb.append("</html>").toString();
+    }
 
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split(",");
-                try {
-                    if (parts.length <= Math.max(stateIdx,
-                            Math.max(aIdx, Math.max(bIdx, Math.max(latIdx, lonIdx))))) continue;
-
-                    double lat = Double.parseDouble(parts[latIdx]);
-                    double lon = Double.parseDouble(parts[lonIdx]);
-                    int aVotes = Integer.parseInt(parts[aIdx]);
-                    int bVotes = Integer.parseInt(parts[bIdx]);
-                    String state = parts[stateIdx].trim().toUpperCase();
-                    String winner = (aVotes > bVotes) ? "A" : "B";
-                    counties.add(new County(state, lat, lon, winner));
-                } catch (Exception ignored) {}
+    // ----------------------------- LAYERS -----------------------------
+    /** Rebuilds whichever layers are stale for the current size, view, focus and data. */
+    private void ensureLayers(int w, int h) {
+        boolean resized = w != layerWidth || h != layerHeight;
+        ProjectedCounties.Frame f = projected == null ? null : frame(w, h);
+        boolean moved = resized || layerViewVersion != viewVersion || f != layerFrame;
+        if (moved) {
+            if (baseLayer == null || resized) baseLayer = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = baseLayer.createGraphics();
+            g.setColor(getBackground());
+            g.fillRect(0, 0, w, h);
+            if (f != null && projection.drawsBaseMap()) {
+                // The image spans 125°W..67°W, 50°N..20°N: plane (-125, -50)..(-67, -20)
+                double x0 = (-125 * f.sx + f.ox) * zoom + panX, y0 = (-50 * f.sy + f.oy) * zoom + panY;
+                double x1 = (-67 * f.sx + f.ox) * zoom + panX, y1 = (-20 * f.sy + f.oy) * zoom + panY;
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.drawImage(mapImage, (int) Math.round(x0), (int) Math.round(y0),
+                        (int) Math.round(x1 - x0), (int) Math.round(y1 - y0), null);
             }
+            g.dispose();
+        }
+
+        if (moved || layerDataVersion != dataVersion || !Objects.equals(layerFocus, focusState)) {
+            long start = System.nanoTime();
+            if (dotLayer == null || resized) dotLayer = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = dotLayer.createGraphics();
+            g.setComposite(AlphaComposite.Clear);
+            g.fillRect(0, 0, w, h);
+            g.setComposite(AlphaComposite.SrcOver);
+            lastDrawn = f == null ? 0 : drawCounties(g, f, w, h);
+            g.dispose();
+            layerRebuilds++;
+            LAYER.since(start);
         }
-        System.out.println("Loaded " + counties.size() + " counties for visualization.");
+        layerWidth = w;
+        layerHeight = h;
+        layerDataVersion = dataVersion;
+        layerViewVersion = viewVersion;
+        layerFocus = focusState;
+        layerFrame = f;
     }
 
-    /** Convert lat/lon to (x, y) for map plotting */
-    private Point project(double lat, double lon, int width, int height) {
-        // Simple equirectangular-style projection tuned for US map alignment
-        double x = (lon + 125) * (width / 58.0);
-        double y = (50 - lat) * (height / 30.0);
-        return new Point((int) x, (int) y);
+    /** Draws the frame's counties that are in view; returns how many were drawn. */
+    private int drawCounties(Graphics2D g, ProjectedCounties.Frame f, int w, int h) {
+        if (counties == null) return 0;
+        int n;
+        if (focusState != null) {
+            // The frame holds just the state's counties; those outside the viewport cull per dot
+            n = focusOrdinal < 0 ? 0 : f.rows.length;
+            for (int i = 0; i < n; i++) visible[i] = i;
+        } else {
+            // Viewport in plane coordinates, widened by one dot so edge dots are not clipped.
+            // National frame indexes are county rows, so the grid's answer indexes the frame directly.
+            n = projected.grid().query(planeYAt(f, -DOT), planeXAt(f, -DOT), planeYAt(f, h), planeXAt(f, w), visible);
+        }
+
+        layerHeat = focusState == null && swing == null && (RENDER.equals("heat")
+                || RENDER.equals("auto") && (double) n * DOT * DOT > MAX_DOT_COVER * w * h);
+        if (layerHeat) {
+            BufferedImage heat = heatmap.render(counties, f, visible, n, w, h, zoom, panX, panY);
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(heat, 0, 0, heatmap.cols() * CountyHeatmap.BIN, heatmap.rows() * CountyHeatmap.BIN, null);
+            return n;
+        }
+
+        int drawn = 0;
+        int current = Integer.MIN_VALUE;
+        float[] fx = f.x, fy = f.y;
+        int[] codes = swingShade != null ? swingShade : winners;
+        for (int i = 0; i < n; i++) {
+            int p = visible[i], j = f.rows[p];
+            int x = (int) (fx[p] * zoom + panX), y = (int) (fy[p] * zoom + panY);
+            if (x < -DOT || y < -DOT || x > w || y > h) continue;
+            if (codes[j] != current) {
+                current = codes[j];
+                g.setColor(dotColor(current));
+            }
+            g.fillOval(x, y, DOT, DOT);
+            drawn++;
+        }
+        return drawn;
     }
 
     @Override
     protected void paintComponent(Graphics g) {
+        long start = System.nanoTime();
         super.paintComponent(g);
-        g.drawImage(mapImage, 0, 0, getWidth(), getHeight(), this);
+        int w = getWidth(), h = getHeight();
+        if (w <= 0 || h <= 0) return;
 
-        for (County c : counties) {
-            if (focusState != null && !focusState.equals(c.stateId)) continue;
-            Point p = project(c.lat, c.lon, getWidth(), getHeight());
-            g.setColor("A".equals(c.winner) ? Color.GREEN : Color.MAGENTA);
-            g.fillOval(p.x, p.y, 5, 5);
-        }
+        ensureLayers(w, h);
+        g.drawImage(baseLayer, 0, 0, null);
+        g.drawImage(dotLayer, 0, 0, null);
 
+        int k = counties == null ? 0 : counties.candidates();
         g.setColor(Color.BLACK);
         g.setFont(new Font("SansSerif", Font.BOLD, 14));
+        StringBuilder versus = new StringBuilder();
+        for (int c = 0; c < k; c++) {
+            if (c > 0) versus.append(" vs ");
+            versus.append(TheVizzard.candidateName(c)).append(" (").append(TheVizzard.getCandidateColorName(c)).append(")");
+        }
         String label = (focusState == null)
-                ? "National County Results — " + TheVizzard.getCandidateA() + " (Green) vs " + TheVizzard.getCandidateB() + " (Magenta)"
-                : focusState + " County Results — " + TheVizzard.getCandidateA() + " (Green) vs " + TheVizzard.getCandidateB() + " (Magenta)";
-        g.drawString(label, 20, 25);
-        g.drawString(TheVizzard.getCandidateA() + " Counties (Green)", 20, 45);
-        g.drawString(TheVizzard.getCandidateB() + " Counties (Magenta)", 20, 65);
+                ? "National County Results — " + versus
+                : focusState + " County Results — " + versus;
+        if (swing != null) {
+            label = (focusState == null ? "National" : focusState) + " County Swing — " + swing.from.label + " → " + swing.to.label;
+            g.drawString(label, 20, 25);
+            for (int i = 0; i < 2; i++) {
+                g.drawString("Towards " + swing.candidateName(i) + " (" + TheVizzard.getCandidateColorName(swing.toColumns[i]) + ")", 20, 45 + 20 * i);
+            }
+            g.drawString("Tie / no data (gray)", 20, 85);
+            g.setFont(new Font("SansSerif", Font.PLAIN, 12));
+            g.drawString(String.format("Shift of the margin; full colour at %.0f points, gray = unchanged or not in both", FULL_SHIFT), 20, 105);
+        } else {
+            g.drawString(label, 20, 25);
+            for (int c = 0; c < k; c++) {
+                g.drawString(TheVizzard.candidateName(c) + " Counties (" + TheVizzard.getCandidateColorName(c) + ")", 20, 45 + 20 * c);
+            }
+            g.drawString("Tie / no data (gray)", 20, 45 + 20 * k);
+        }
+        if (layerHeat) {
+            g.setFont(new Font("SansSerif", Font.PLAIN, 12));
+            g.drawString("Heatmap: colour = leader, strength = margin, opacity = votes (zoom in for counties)", 20, 65 + 20 * k);
+        }
+
+        long now = System.nanoTime(), took = now - start;
+        if (pendingUpdateNanos != 0) {
+            lastUpdateNanos = now - pendingUpdateNanos;
+            LIVE.record(lastUpdateNanos);
+            maxUpdateNanos = Math.max(maxUpdateNanos, lastUpdateNanos);
+            liveUpdates++;
+            pendingUpdateNanos = 0;
+        }
+        FRAME.record(took);
+        paints++;
+        paintNanos += took;
+        maxPaintNanos = Math.max(maxPaintNanos, took);
+    }
+
+    /** Paints the map offscreen at {@code width} x {@code height}; no window needed (batch mode). */
+    public BufferedImage render(int width, int height) {
+        setSize(width, height);
+        BufferedImage img = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = img.createGraphics();
+        paint(g);
+        g.dispose();
+        return img;
+    }
+
+    /**
+     * Repaint latency so far: count, mean and worst frame, how many paints had
+     * to redraw the dots, hover cost and, once live updates arrived, file
+     * change to screen.
+     */
+    public String repaintStats() {
+        double avgMs = paints == 0 ? 0 : paintNanos / 1e6 / paints;
+        double hoverUs = hovers == 0 ? 0 : hoverNanos / 1e3 / hovers;
+        String stats = String.format("%d repaints, avg %.2f ms, max %.2f ms, %d layer rebuilds (%d counties %s), %d hovers avg %.1f µs",
+                paints, avgMs, maxPaintNanos / 1e6, layerRebuilds, lastDrawn, layerHeat ? "in heatmap" : "drawn", hovers, hoverUs);
+        if (liveUpdates > 0) {
+            stats += String.format(", %d live updates (change to screen last %.1f ms, max %.1f ms)",
+                    liveUpdates, lastUpdateNanos / 1e6, maxUpdateNanos / 1e6);
+        }
+        return stats;
     }
 
     /** Display full USA map */
@@ -123,24 +525,81 @@ public class TheVizzardMap extends JPanel {
         displayMap(stateCode);
     }
 
-    /** Core display logic (thread-safe Swing) */
+    /** Counties coloured by {@code swing} (see {@link #setSwing}); one state, or null for the whole country. */
+    public static void displaySwingMap(Swing swing, String stateCode) {
+        SwingUtilities.invokeLater(() -> {
+            JFrame frame = new JFrame("The Vizzard — Swing " + swing.from.label + " → " + swing.to.label
+                    + (stateCode == null ? "" : " (" + stateCode.toUpperCase() + ")"));
+            frame.setSize(900, 600);
+            frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+            if (sharedMapImage == null) sharedMapImage = new ImageIcon(MAP_IMAGE).getImage();
+            TheVizzardMap panel = new TheVizzardMap(swing.to.data, sharedMapImage, stateCode);
+            panel.setSwing(swing);
+            frame.add(panel);
+            frame.setVisible(true);
+        });
+    }
+
+    /** Base map image, decoded once and shared by every window. */
+    private static Image sharedMapImage;
+
+    /**
+     * Core display logic (thread-safe Swing). The frame opens straight away with
+     * a progress bar; the shared county dataset loads off the EDT and the map
+     * replaces the bar once it is ready.
+     */
     private static void displayMap(String stateCode) {
+        String csvPath = CountyDataset.DEFAULT_PATH;
+        CompletableFuture<CountyData> data = CountyDataset.load(csvPath);
         SwingUtilities.invokeLater(() -> {
-            try {
-                JFrame frame = new JFrame("The Vizzard — " +
-                        (stateCode == null ? "National Map" : stateCode.toUpperCase() + " Map"));
-                TheVizzardMap panel = new TheVizzardMap(
-                        "data/Voting-Counties.csv",
-                        "data/us_map.png",
-                        stateCode
-                );
+            JFrame frame = new JFrame("The Vizzard — " +
+                    (stateCode == null ? "National Map" : stateCode.toUpperCase() + " Map"));
+            frame.setSize(900, 600);
+            frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+
+            JProgressBar bar = new JProgressBar(0, 100);
+            bar.setStringPainted(true);
+            JLabel status = new JLabel("Loading counties…", SwingConstants.CENTER);
+            JPanel loading = new JPanel(new BorderLayout(0, 8));
+            loading.setBorder(BorderFactory.createEmptyBorder(240, 150, 240, 150));
+            loading.add(status, BorderLayout.NORTH);
+            loading.add(bar, BorderLayout.CENTER);
+            frame.add(loading);
+            frame.setVisible(true);
+
+            javax.swing.Timer poll = new javax.swing.Timer(50,
+                    e -> bar.setValue((int) (CountyDataset.progress(csvPath) * 100)));
+            poll.start();
+
+            data.whenComplete((counties, error) -> SwingUtilities.invokeLater(() -> {
+                poll.stop();
+                if (error != null) {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    System.out.println("❌ Failed to load map: " + cause.getMessage());
+                    status.setText("❌ Failed to load map: " + cause.getMessage());
+                    loading.remove(bar);
+                    loading.revalidate();
+                    return;
+                }
+                if (sharedMapImage == null) sharedMapImage = new ImageIcon(MAP_IMAGE).getImage();
+                TheVizzardMap panel = new TheVizzardMap(counties, sharedMapImage, stateCode);
+                panel.follow(csvPath);
+                frame.getContentPane().removeAll();
                 frame.add(panel);
-                frame.setSize(900, 600);
-                frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-                frame.setVisible(true);
-            } catch (IOException e) {
-                System.out.println("❌ Failed to load map: " + e.getMessage());
-            }
+                frame.revalidate();
+                frame.repaint();
+                frame.addWindowListener(new WindowAdapter() {
+                    @Override
+                    public void windowClosing(WindowEvent e) {
+                        System.out.println("Map repaint latency: " + panel.repaintStats());
+                    }
+
+                    @Override
+                    public void windowClosed(WindowEvent e) {
+                        panel.unfollow();
+                    }
+                });
+            }));
         });
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,195 @@
+import java.util.*;
+
+/**
+ * Immutable as-of index over county return times.
+ *
+ * Built once from {@link CountyData}: county returns are sorted by time and
+ * folded into cumulative arrays, both nationally (votes, electoral votes and
+ * states reporting after each return) and per state (votes after each of
+ * that state's returns). Any "results as of T" query, at second granularity,
+ * is then a binary search plus array reads; the {@code asOf(time, into)} and
+ * per-state lookups allocate nothing.
+ */
+public class TimeIndex {
+
+    /** Result of an as-of query. Reusable: pass the same instance back into {@link #asOf(long, Snapshot)}. */
+    public static class Snapshot {
+        public long time;
+        public int countiesReported, countiesTotal;
+        public int statesReporting;
+        public final long[] votes;     // [candidate] national votes
+        public final int[] electoral;  // [candidate] electoral votes of states currently led
+
+        public Snapshot(int candidates) {
+            votes = new long[candidates];
+            electoral = new int[candidates];
+        }
+    }
+
+    private static final Metrics.Timer BUILD = Metrics.timer("aggregate.timeindex.build");
+    private static final Metrics.Counter AS_OF = Metrics.counter("aggregate.timeindex.asof.calls");   // two array reads: count only
+
+    private final CountyData counties;
+    private final int candidates, states;
+
+    // National timeline, one entry per return in time order ([i + 1] = after return i)
+    private final int[] order;            // county row of return i
+    private final long[] times;           // time of return i
+    private final long[][] cumVotes;      // [candidate][i + 1]
+    private final int[][] cumEV;          // [candidate][i + 1]
+    private final int[] cumStates;        // [i + 1] states with at least one return
+
+    // Per-state timelines: returns of state s occupy [stateStart[s], stateStart[s + 1])
+    private final int[] stateStart;
+    private final long[] stateTimes;
+    private final long[][] stateCum;      // [candidate][slot] state votes after that return
+
+    public TimeIndex(CountyData counties, VoteStore store) {
+        long start = System.nanoTime();
+        this.counties = counties;
+        this.candidates = counties.candidates();
+        this.states = counties.states.size();
+
+        // Sort once: counties with no usable time never report
+        int n = 0;
+        for (int j = 0; j < counties.size; j++) if (counties.returnTime[j] != CountyData.NO_TIME) n++;
+        Integer[] sorted = new Integer[n];
+        for (int j = 0, k = 0; j < counties.size; j++) {
+            if (counties.returnTime[j] != CountyData.NO_TIME) sorted[k++] = j;
+        }
+        Arrays.sort(sorted, Comparator.comparingLong(j -> counties.returnTime[j]));
+        order = new int[n];
+        times = new long[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = sorted[i];
+            times[i] = counties.returnTime[order[i]];
+        }
+
+        // Per-state slots, still in time order within each state
+        stateStart = new int[states + 1];
+        for (int i = 0; i < n; i++) stateStart[counties.state[order[i]] + 1]++;
+        for (int s = 0; s < states; s++) stateStart[s + 1] += stateStart[s];
+        int[] fill = Arrays.copyOf(stateStart, states);
+        int[] slotOf = new int[n];
+        for (int i = 0; i < n; i++) slotOf[i] = fill[counties.state[order[i]]]++;
+
+        stateTimes = new long[n];
+        stateCum = new long[candidates][n];
+        cumVotes = new long[candidates][n + 1];
+        cumEV = new int[candidates][n + 1];
+        cumStates = new int[n + 1];
+
+        int[] electoral = new int[states];
+        for (int s = 0; s < states; s++) electoral[s] = store.electoral(s);
+        int[] winner = new int[states];
+        Arrays.fill(winner, TallyEngine.TIE);
+        int[] ev = new int[candidates];
+        int reporting = 0;
+        long[] stateVotes = new long[candidates];
+
+        for (int i = 0; i < n; i++) {
+            int county = order[i], st = counties.state[county], slot = slotOf[i];
+            boolean first = slot == stateStart[st];
+            stateTimes[slot] = times[i];
+
+            // Cumulative state votes and the state's new leader
+            for (int c = 0; c < candidates; c++) {
+                long v = counties.votes[c][county];
+                long cum = (first ? 0 : stateCum[c][slot - 1]) + v;
+                stateCum[c][slot] = cum;
+                stateVotes[c] = cum;
+                cumVotes[c][i + 1] = cumVotes[c][i] + v;
+            }
+            int lead = TallyEngine.leader(stateVotes);
+            if (lead != winner[st]) {
+                if (winner[st] != TallyEngine.TIE) ev[winner[st]] -= electoral[st];
+                if (lead != TallyEngine.TIE) ev[lead] += electoral[st];
+                winner[st] = lead;
+            }
+            if (first) reporting++;
+            for (int c = 0; c < candidates; c++) cumEV[c][i + 1] = ev[c];
+            cumStates[i + 1] = reporting;
+        }
+        BUILD.since(start);
+    }
+
+    // ----------------------------- TIMELINE -----------------------------
+    public CountyData counties()  { return counties; }
+    public int eventCount()       { return order.length; }
+    /** County row of the i-th return in time order. */
+    public int county(int i)      { return order[i]; }
+    public long time(int i)       { return times[i]; }
+    public long firstTime()       { return times.length == 0 ? CountyData.NO_TIME : times[0]; }
+    public long lastTime()        { return times.length == 0 ? CountyData.NO_TIME : times[times.length - 1]; }
+
+    /** Number of returns in by {@code time} (inclusive). */
+    public int eventsAsOf(long time) {
+        return upperBound(times, 0, times.length, time);
+    }
+
+    // ----------------------------- AS-OF QUERIES -----------------------------
+    /** National snapshot as of {@code time}. */
+    public Snapshot asOf(long time) {
+        return asOf(time, new Snapshot(candidates));
+    }
+
+    /** Fills {@code into} with the national snapshot as of {@code time}; allocation-free. */
+    public Snapshot asOf(long time, Snapshot into) {
+        AS_OF.increment();
+        int i = eventsAsOf(time);
+        into.time = time;
+        into.countiesReported = i;
+        into.countiesTotal = order.length;
+        into.statesReporting = cumStates[i];
+        for (int c = 0; c < candidates; c++) {
+            into.votes[c] = cumVotes[c][i];
+            into.electoral[c] = cumEV[c][i];
+        }
+        return into;
+    }
+
+    public long nationalVotesAsOf(int candidate, long time) {
+        return cumVotes[candidate][eventsAsOf(time)];
+    }
+
+    public int electoralVotesAsOf(int candidate, long time) {
+        return cumEV[candidate][eventsAsOf(time)];
+    }
+
+    /** A state's votes for {@code candidate} as of {@code time}. */
+    public long stateVotesAsOf(int candidate, int state, long time) {
+        if (state < 0 || state >= states) return 0;
+        int from = stateStart[state], to = stateStart[state + 1];
+        int k = upperBound(stateTimes, from, to, time);
+        return k == from ? 0 : stateCum[candidate][k - 1];
+    }
+
+    /** Counties of {@code state} reported by {@code time}. */
+    public int stateCountiesAsOf(int state, long time) {
+        if (state < 0 || state >= states) return 0;
+        int from = stateStart[state];
+        return upperBound(stateTimes, from, stateStart[state + 1], time) - from;
+    }
+
+    /**
+     * Maps a clock time (seconds after midnight) onto the election timeline:
+     * the first such moment no more than 12 hours before the first return, so
+     * "19:00" is before polls closed and "01:30" is the morning after.
+     */
+    public long resolveClock(int secondsOfDay) {
+        long first = firstTime();
+        if (first == CountyData.NO_TIME) return secondsOfDay;
+        long t = Math.floorDiv(first, 86_400L) * 86_400L + secondsOfDay;
+        return t < first - 12 * 3600L ? t + 86_400L : t;
+    }
+
+    /** First index in [from, to) whose time is after {@code time}. */
+    private static int upperBound(long[] a, int from, int to, long time) {
+        int lo = from, hi = to;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] <= time) lo = mid + 1; else hi = mid;
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,145 @@
+import java.io.*;
+import java.util.*;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+/**
+ * Loads Vote-Results.xlsx into a {@link VoteStore}.
+ *
+ * Candidate columns come from the header row ("Sum of RR Votes", "B_Votes",
+ * ...); without one the legacy layout [*, stateId at col 1, *, A_Votes at
+ * col 3, B_Votes at col 4, ...] is used. All POI use lives here, so callers
+ * that never read the workbook (e.g. a warm start from a {@link DataSnapshot})
+ * never load POI classes.
+ */
+public class VoteResultsXlsx {
+
+    private final VoteStore votes;
+
+    /** Results sheet layout: state ID column plus candidate columns, replaced once the header row is seen. */
+    private int stateCol = 1;
+    private CandidateColumns resultColumns =
+            CandidateColumns.fixed(new int[]{3, 4}, new String[]{"A", "B"});
+    private boolean resultHeaderSeen;
+
+    /** Rows stored, and rows skipped for a missing state ID or candidate cell. */
+    private int stored, missingState, missingCell;
+
+    private VoteResultsXlsx(VoteStore votes) {
+        this.votes = votes;
+    }
+
+    /** Reads the "Results" sheet, streaming (SAX) or through a full XSSFWorkbook DOM. */
+    public static void load(File file, VoteStore votes, boolean stream) throws IOException {
+        if (!file.exists()) throw new FileNotFoundException(file.getPath());
+        long start = System.nanoTime();
+        VoteResultsXlsx loader = new VoteResultsXlsx(votes);
+        if (stream) {
+            loader.streamWorkbook(file);
+        } else {
+            loader.readWorkbook(file);
+        }
+        Metrics.rejected("vote-results", "missing-state", loader.missingState);
+        Metrics.rejected("vote-results", "missing-cell", loader.missingCell);
+        Metrics.loaded("vote-results", loader.stored, file.length(), System.nanoTime() - start);
+    }
+
+    /** Streaming mode: same sheet/row/column rules; memory grows with the shared-string table, not the row count. */
+    private void streamWorkbook(File file) throws IOException {
+        XlsxStreamReader.read(file, "Results", 2, (r, row) -> acceptVoteRow(row));
+    }
+
+    /** Shared by both XLSX modes: header detection, skip rules and the store write. */
+    private void acceptVoteRow(XlsxStreamReader.SheetRow row) {
+        if (!resultHeaderSeen && readResultHeader(row)) return;
+
+        // State ID and every candidate cell must exist
+        if (!row.has(stateCol)) { missingState++; return; }
+        for (int col : resultColumns.columns) if (!row.has(col)) { missingCell++; return; }
+
+        String stateId = row.text(stateCol);
+        if (stateId == null) { missingState++; return; }
+        stateId = stateId.trim();
+
+        int st = votes.state(stateId);
+        for (int c = 0; c < resultColumns.size(); c++) {
+            votes.setVotes(st, votes.candidate(resultColumns.names[c]), row.safeInt(resultColumns.columns[c]));
+        }
+        stored++;
+    }
+
+    /** Takes the column layout from a row holding a "state_id" cell and candidate vote headers. */
+    private boolean readResultHeader(XlsxStreamReader.SheetRow row) {
+        List<String> cells = new ArrayList<>();
+        int idCol = -1;
+        for (int col = 0; col < row.width(); col++) {
+            String text = row.has(col) ? row.text(col) : null;
+            cells.add(text);
+            if (text != null && text.trim().equalsIgnoreCase("state_id")) idCol = col;
+        }
+        if (idCol < 0) return false;
+        CandidateColumns found = CandidateColumns.fromHeader(cells);
+        if (found.size() == 0) return false;
+
+        stateCol = idCol;
+        resultColumns = found;
+        resultHeaderSeen = true;
+        return true;
+    }
+
+    /** DOM mode: builds the whole workbook in memory. */
+    private void readWorkbook(File file) throws IOException {
+        try (FileInputStream fis = new FileInputStream(file);
+             Workbook wb = new XSSFWorkbook(fis)) {
+
+            Sheet sheet = wb.getSheet("Results");
+            if (sheet == null) {
+                // Fallback: first sheet if "Results" isn't found
+                sheet = wb.getNumberOfSheets() > 0 ? wb.getSheetAt(0) : null;
+            }
+            if (sheet == null) throw new IllegalStateException("No sheet found in " + file);
+
+            int lastRow = sheet.getLastRowNum();
+            for (int r = 2; r <= lastRow; r++) {           // start at row 2 (0-based) per your file
+                Row row = sheet.getRow(r);
+                if (row == null) continue;
+                acceptVoteRow(new WorkbookRow(row));
+            }
+        }
+    }
+
+    /** DOM row seen through the same interface the streaming reader uses. */
+    private static class WorkbookRow implements XlsxStreamReader.SheetRow {
+        private final Row row;
+        WorkbookRow(Row row) { this.row = row; }
+
+        public int width() { return Math.max(row.getLastCellNum(), 0); }
+
+        public boolean has(int col) { return row.getCell(col) != null; }
+
+        public String text(int col) {
+            Cell cell = row.getCell(col);
+            if (cell == null) return null;
+            try {
+                return cell.getStringCellValue();
+            } catch (Exception ignore) {
+                // If it's numeric for some reason, try converting
+                if (cell.getCellType() == CellType.NUMERIC) {
+                    return String.valueOf((int) cell.getNumericCellValue());
+                }
+            }
+            return null;
+        }
+
+        public int safeInt(int col) { return VoteResultsXlsx.safeInt(row.getCell(col)); }
+    }
+
+    private static int safeInt(Cell c) {
+        try {
+            if (c == null) return 0;
+            if (c.getCellType() == CellType.NUMERIC) return (int) c.getNumericCellValue();
+            if (c.getCellType() == CellType.STRING)  return Integer.parseInt(c.getStringCellValue().trim());
+        } catch (Exception ignore) {}
+        return 0;
+    }
+}
@@ -0,0 +1,122 @@
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Dense columnar vote store.
+ *
+ * Every state gets an int ordinal from an {@link IdDictionary}; votes live in
+ * one {@code long[]} column per candidate and electoral votes in a parallel
+ * {@code int[]}. Rows that were never reported simply hold zeros, so the
+ * aggregation loops below need no lookups, boxing or branches on presence.
+ *
+ * The store itself does no locking. When it is read on other threads while
+ * it changes (the results server during a watch), the writer holds
+ * {@link #lock()}'s write lock for a whole batch of changes and readers hold
+ * its read lock for everything they read together, since a write may swap
+ * the column arrays.
+ */
+public class VoteStore {
+
+    private final IdDictionary ids;
+    private final List<String> candidateNames = new ArrayList<>();
+
+    private long[][] votes;      // [candidate][ordinal]
+    private int[] electoral;     // [ordinal]
+    private boolean[] reported;  // [ordinal] true once a vote row was loaded
+    private int size, reportedCount;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public VoteStore() {
+        this(new IdDictionary());
+    }
+
+    public VoteStore(IdDictionary ids) {
+        this.ids = ids;
+        this.votes = new long[0][];
+        this.electoral = new int[64];
+        this.reported = new boolean[64];
+    }
+
+    // ----------------------------- WRITES -----------------------------
+    /** Returns the column index for a candidate, adding an empty column if it is new. */
+    public int candidate(String name) {
+        int c = candidateNames.indexOf(name);
+        if (c >= 0) return c;
+        candidateNames.add(name);
+        votes = Arrays.copyOf(votes, votes.length + 1);
+        votes[votes.length - 1] = new long[electoral.length];
+        return votes.length - 1;
+    }
+
+    /** Returns the ordinal for a state ID, growing the columns if needed. */
+    public int state(String id) {
+        int ord = ids.intern(id);
+        ensureCapacity(ord + 1);
+        if (ord >= size) size = ord + 1;
+        return ord;
+    }
+
+    public void setVotes(int ordinal, int candidate, long count) {
+        votes[candidate][ordinal] = count;
+        markReported(ordinal);
+    }
+
+    public void setElectoral(String id, int ev) {
+        electoral[state(id)] = ev;
+    }
+
+    private void markReported(int ordinal) {
+        if (!reported[ordinal]) {
+            reported[ordinal] = true;
+            reportedCount++;
+        }
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= electoral.length) return;
+        int cap = Math.max(needed, electoral.length * 2);
+        for (int c = 0; c < votes.length; c++) votes[c] = Arrays.copyOf(votes[c], cap);
+        electoral = Arrays.copyOf(electoral, cap);
+        reported = Arrays.copyOf(reported, cap);
+    }
+
+    // ----------------------------- READS -----------------------------
+    /** Guards writes that may run alongside readers on other threads; see the class comment. */
+    public ReadWriteLock lock()          { return lock; }
+    public IdDictionary ids()            { return ids; }
+    public int candidates()              { return votes.length; }
+    public String candidateName(int c)   { return candidateNames.get(c); }
+    /** Number of ordinals in use (reported or not). */
+    public int size()                    { return size; }
+    public int reportedCount()           { return reportedCount; }
+    public String id(int ordinal)        { return ids.id(ordinal); }
+    public int ordinal(String id)        { return ids.ordinal(id); }
+    public boolean reported(int ordinal) { return ordinal >= 0 && ordinal < size() && reported[ordinal]; }
+    public long votes(int candidate, int ordinal) { return votes[candidate][ordinal]; }
+    public int electoral(int ordinal)    { return (ordinal < 0 || ordinal >= size) ? 0 : electoral[ordinal]; }
+
+    /** Ordinals of reported states, in load order. */
+    public int[] reportedOrdinals() {
+        int[] out = new int[reportedCount];
+        int n = size(), k = 0;
+        for (int i = 0; i < n; i++) if (reported[i]) out[k++] = i;
+        return out;
+    }
+
+    // ----------------------------- AGGREGATIONS -----------------------------
+    /** Winners, totals, shares and margins for every state in one sweep. */
+    public TallyEngine.Tally tally() {
+        return TallyEngine.tally(votes, size());
+    }
+
+    /** Sum of each candidate's column. */
+    public long[] popularTotals() {
+        return TallyEngine.popularTotals(votes, size());
+    }
+
+    /** Electoral votes per candidate; a tied state awards nothing. */
+    public int[] electoralTotals(TallyEngine.Tally tally) {
+        return TallyEngine.electoralTotals(tally, electoral);
+    }
+}
@@ -0,0 +1,358 @@
+import java.io.*;
+import java.util.*;
+import javax.xml.parsers.ParserConfigurationException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.xml.sax.*;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Streaming .xlsx reader built on POI's event API (XSSFReader + SAX).
+ *
+ * Rows are pushed one at a time into a reusable {@link XlsxRow}, so the rows
+ * themselves take no memory however many the sheet has. The shared-string
+ * table is the exception: it is parsed the first time a string cell is
+ * actually read, and then held whole, as one packed char buffer (about two
+ * bytes per character plus an int per entry) rather than one object per
+ * entry. Memory therefore grows with the number of distinct strings in the
+ * workbook, e.g. one per precinct name in a precinct-level export, not with
+ * the number of rows.
+ */
+public class XlsxStreamReader {
+
+    /** Receives each row at or after the requested first row (0-based index). */
+    public interface RowVisitor {
+        void row(int rowIndex, XlsxRow row);
+    }
+
+    /** Read-only view of one sheet row, shared by the streaming and DOM loaders. */
+    public interface SheetRow {
+        /** Number of columns up to and including the last present cell. */
+        int width();
+        /** True if the sheet has a cell at this column (even a blank one). */
+        boolean has(int col);
+        /**
+         * Cell as text: strings as-is, blanks as "", numerics as their int value,
+         * formulas only when their cached result is a string; otherwise null.
+         */
+        String text(int col);
+        /** Numbers truncate, strings parse, anything else is 0. */
+        int safeInt(int col);
+    }
+
+    /** Cell kinds, mirroring what the DOM model reports through getCellType(). */
+    static final byte NONE = 0, BLANK = 1, NUMERIC = 2, STRING = 3, SHARED = 4,
+                      BOOLEAN = 5, ERROR = 6, FORMULA = 7;
+
+    /** Excel's last column (XFD); a cell past it means a corrupt sheet and fails the read. */
+    static final int MAX_COLUMNS = 16_384;
+
+    /**
+     * Streams one sheet of the workbook: {@code preferredSheet} if present,
+     * otherwise the first sheet.
+     */
+    public static void read(File file, String preferredSheet, int firstRow, RowVisitor visitor)
+            throws IOException {
+        if (!file.exists()) throw new FileNotFoundException(file.getPath());
+
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+
+            PackagePart chosen = null, first = null;
+            XSSFReader.SheetIterator it = (XSSFReader.SheetIterator) reader.getSheetsData();
+            while (it.hasNext()) {
+                it.next().close();                        // only the part is needed here
+                PackagePart part = it.getSheetPart();
+                if (first == null) first = part;
+                if (preferredSheet != null && preferredSheet.equals(it.getSheetName())) {
+                    chosen = part;
+                    break;
+                }
+            }
+            if (chosen == null) chosen = first;          // fallback: first sheet
+            if (chosen == null) throw new IllegalStateException("No sheet found in " + file);
+
+            LazySharedStrings strings = new LazySharedStrings(reader);
+            XMLReader xml = XMLHelper.newXMLReader();
+            xml.setContentHandler(new SheetHandler(new XlsxRow(strings), firstRow, visitor));
+            try (InputStream in = chosen.getInputStream()) {
+                xml.parse(new InputSource(in));
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("Failed to stream " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    /** "B12" -> 1. Returns -1 when the reference has no column letters. */
+    static int columnOf(String ref) {
+        int col = 0, i = 0;
+        while (i < ref.length()) {
+            char ch = ref.charAt(i);
+            if (ch < 'A' || ch > 'Z') break;
+            col = col * 26 + (ch - 'A' + 1);
+            i++;
+        }
+        return i == 0 ? -1 : col - 1;
+    }
+
+    // ----------------------------- ROW -----------------------------
+    /**
+     * One reusable row. Values follow the same coercion rules as the DOM loader.
+     * Its columns grow to the widest row seen, so wide sheets (50 candidates
+     * with a votes and a share column each) keep every cell.
+     */
+    public static class XlsxRow implements SheetRow {
+        private final LazySharedStrings strings;
+        private byte[] kind = new byte[64];
+        private String[] raw = new String[64];
+        private boolean[] formulaString = new boolean[64];
+        private int width;
+
+        XlsxRow(LazySharedStrings strings) { this.strings = strings; }
+
+        void clear() {
+            Arrays.fill(kind, 0, width, NONE);
+            Arrays.fill(raw, 0, width, null);
+            Arrays.fill(formulaString, 0, width, false);
+            width = 0;
+        }
+
+        void set(int col, byte k, String value, boolean isFormulaString) {
+            if (col >= kind.length) {
+                int cap = Math.min(Math.max(kind.length * 2, col + 1), MAX_COLUMNS);
+                kind = Arrays.copyOf(kind, cap);
+                raw = Arrays.copyOf(raw, cap);
+                formulaString = Arrays.copyOf(formulaString, cap);
+            }
+            kind[col] = k;
+            raw[col] = value;
+            formulaString[col] = isFormulaString;
+            if (col + 1 > width) width = col + 1;
+        }
+
+        @Override
+        public int width() { return width; }
+
+        @Override
+        public boolean has(int col) {
+            return col >= 0 && col < width && kind[col] != NONE;
+        }
+
+        @Override
+        public String text(int col) {
+            if (!has(col)) return null;
+            switch (kind[col]) {
+                case BLANK:   return "";
+                case STRING:  return raw[col] == null ? "" : raw[col];
+                case SHARED:  return strings.get(parseIndex(raw[col]));
+                case NUMERIC: return String.valueOf((int) number(raw[col]));
+                case FORMULA: return formulaString[col] ? (raw[col] == null ? "" : raw[col]) : null;
+                default:      return null;
+            }
+        }
+
+        @Override
+        public int safeInt(int col) {
+            try {
+                if (!has(col)) return 0;
+                if (kind[col] == NUMERIC) return (int) number(raw[col]);
+                if (kind[col] == STRING)  return Integer.parseInt(raw[col].trim());
+                if (kind[col] == SHARED)  return Integer.parseInt(strings.get(parseIndex(raw[col])).trim());
+            } catch (Exception ignore) {}
+            return 0;
+        }
+
+        private static double number(String v) {
+            return (v == null || v.isEmpty()) ? 0.0 : Double.parseDouble(v);
+        }
+
+        private static int parseIndex(String v) {
+            return Integer.parseInt(v.trim());
+        }
+    }
+
+    // ----------------------------- SHEET HANDLER -----------------------------
+    private static class SheetHandler extends DefaultHandler {
+        private final XlsxRow row;
+        private final int firstRow;
+        private final RowVisitor visitor;
+        private final StringBuilder text = new StringBuilder();
+
+        private int rowIndex = -1, col = -1;
+        private String type;
+        private boolean inValue, inInline, hasFormula, hasValue;
+
+        SheetHandler(XlsxRow row, int firstRow, RowVisitor visitor) {
+            this.row = row;
+            this.firstRow = firstRow;
+            this.visitor = visitor;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes atts) {
+            switch (localName) {
+                case "row": {
+                    String r = atts.getValue("r");
+                    rowIndex = (r != null) ? Integer.parseInt(r) - 1 : rowIndex + 1;
+                    col = -1;
+                    row.clear();
+                    break;
+                }
+                case "c": {
+                    String ref = atts.getValue("r");
+                    int c = (ref != null) ? columnOf(ref) : -1;
+                    col = (c >= 0) ? c : col + 1;
+                    type = atts.getValue("t");
+                    hasFormula = hasValue = false;
+                    text.setLength(0);
+                    break;
+                }
+                case "f":
+                    hasFormula = true;
+                    break;
+                case "v":
+                    inValue = true;
+                    hasValue = true;
+                    text.setLength(0);
+                    break;
+                case "is":
+                    inInline = true;
+                    hasValue = true;
+                    text.setLength(0);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inValue || inInline) text.append(ch, start, length);
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            switch (localName) {
+                case "v":
+                    inValue = false;
+                    break;
+                case "is":
+                    inInline = false;
+                    break;
+                case "c":
+                    if (col >= MAX_COLUMNS) {
+                        throw new SAXException("Cell in column " + (col + 1) + " of row " + (rowIndex + 1)
+                                + " is past Excel's last column (" + MAX_COLUMNS + ")");
+                    }
+                    if (rowIndex >= firstRow && col >= 0) storeCell();
+                    break;
+                case "row":
+                    if (rowIndex >= firstRow) visitor.row(rowIndex, row);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private void storeCell() {
+            String value = hasValue ? text.toString() : null;
+            if (hasFormula) {
+                row.set(col, FORMULA, value, "str".equals(type));
+            } else if (!hasValue) {
+                row.set(col, BLANK, null, false);
+            } else if (type == null || "n".equals(type)) {
+                row.set(col, NUMERIC, value, false);
+            } else if ("s".equals(type)) {
+                row.set(col, SHARED, value, false);
+            } else if ("inlineStr".equals(type) || "str".equals(type)) {
+                row.set(col, STRING, value, false);
+            } else if ("b".equals(type)) {
+                row.set(col, BOOLEAN, value, false);
+            } else {
+                row.set(col, ERROR, value, false);
+            }
+        }
+    }
+
+    // ----------------------------- SHARED STRINGS -----------------------------
+    /**
+     * Shared strings table that is only parsed on first lookup, and then kept
+     * in full. Entries are packed into one char buffer with an offset table;
+     * Strings are created on demand.
+     */
+    static class LazySharedStrings extends DefaultHandler {
+        private final XSSFReader reader;
+        private boolean loaded;
+
+        private char[] chars = new char[1 << 12];
+        private int[] offsets = new int[256];
+        private int count, length;
+
+        private boolean inItem, inText, inPhonetic;
+
+        LazySharedStrings(XSSFReader reader) { this.reader = reader; }
+
+        String get(int index) {
+            if (!loaded) load();
+            if (index < 0 || index >= count) return null;
+            int from = offsets[index];
+            int to = (index + 1 < count) ? offsets[index + 1] : length;
+            return new String(chars, from, to - from);
+        }
+
+        private void load() {
+            loaded = true;
+            try (InputStream in = reader.getSharedStringsData()) {
+                if (in == null) return;
+                XMLReader xml = XMLHelper.newXMLReader();
+                xml.setContentHandler(this);
+                xml.parse(new InputSource(in));
+            } catch (IOException | OpenXML4JException | SAXException | ParserConfigurationException e) {
+                throw new IllegalStateException("Failed to read shared strings: " + e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes atts) {
+            switch (localName) {
+                case "si":
+                    if (count == offsets.length) offsets = Arrays.copyOf(offsets, count * 2);
+                    offsets[count++] = length;
+                    inItem = true;
+                    break;
+                case "rPh":
+                    inPhonetic = true;                    // phonetic runs are not part of the text
+                    break;
+                case "t":
+                    inText = inItem && !inPhonetic;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int len) {
+            if (!inText) return;
+            if (length + len > chars.length) {
+                chars = Arrays.copyOf(chars, Math.max(chars.length * 2, length + len));
+            }
+            System.arraycopy(ch, start, chars, length, len);
+            length += len;
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            switch (localName) {
+                case "si":  inItem = false;     break;
+                case "rPh": inPhonetic = false; break;
+                case "t":   inText = false;     break;
+                default:    break;
+            }
+        }
+    }
+}
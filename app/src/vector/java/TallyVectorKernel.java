@@ -0,0 +1,52 @@
+import jdk.incubator.vector.*;
+
+/**
+ * The {@link TallyEngine} sweep on the JDK Vector API.
+ *
+ * Lives outside the BlueJ sources because it needs the incubator module at
+ * compile time; Maven builds it into the app jar, and TallyEngine only
+ * links it when the JVM runs with {@code --add-modules jdk.incubator.vector}.
+ * Each step compares a full vector of jurisdictions of one candidate column
+ * against the running best and runner-up, with masked blends in place of the
+ * scalar loop's selects. Winners are kept as longs in a scratch column, so
+ * every vector has the same shape and no mask is converted, and narrowed to
+ * {@code winner} at the end. The tail past the last full vector runs the
+ * scalar loop.
+ */
+final class TallyVectorKernel {
+
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+
+    private TallyVectorKernel() { }
+
+    /** Folds every column of {@code votes} into {@code total, best, second, winner} over [0, n). */
+    static void sweep(long[][] votes, int n, long[] total, long[] best, long[] second, int[] winner) {
+        int bound = LONGS.loopBound(n);
+        long[] leader = new long[bound];
+        for (int j = 0; j < bound; j++) leader[j] = winner[j];
+        for (int c = 0; c < votes.length; c++) {
+            long[] col = votes[c];
+            LongVector candidate = LongVector.broadcast(LONGS, c);
+            int j = 0;
+            for (; j < bound; j += LONGS.length()) {
+                LongVector v = LongVector.fromArray(LONGS, col, j);
+                LongVector b = LongVector.fromArray(LONGS, best, j);
+                VectorMask<Long> ahead = v.compare(VectorOperators.GT, b);
+                LongVector.fromArray(LONGS, second, j).max(v).blend(b, ahead).intoArray(second, j);
+                b.blend(v, ahead).intoArray(best, j);
+                LongVector.fromArray(LONGS, leader, j).blend(candidate, ahead).intoArray(leader, j);
+                LongVector.fromArray(LONGS, total, j).add(v).intoArray(total, j);
+            }
+            for (; j < n; j++) {
+                long v = col[j];
+                long b = best[j];
+                boolean lead = v > b;
+                second[j] = lead ? b : Math.max(second[j], v);
+                best[j]   = lead ? v : b;
+                winner[j] = lead ? c : winner[j];
+                total[j] += v;
+            }
+        }
+        for (int j = 0; j < bound; j++) winner[j] = (int) leader[j];
+    }
+}
@@ -0,0 +1,143 @@
+package thevizzard.bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * The calculate* aggregations behind TheVizzard's output: state tally,
+ * popular and electoral totals over the VoteStore, the county-level tally the
+ * map uses, bottom-up state totals from county rows (single thread and
+ * fork/join), building and querying the as-of TimeIndex, Monte Carlo
+ * runs over the counties not yet reported halfway through the night, and
+ * the county swing between two loads of the same file held in one
+ * ElectionSet.
+ *
+ * {@link Candidates} times the tally kernel by itself over synthetic 2, 10
+ * and 50 candidate matrices, on both the Vector API and the scalar loop.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "--add-modules", "jdk.incubator.vector"})
+public class AggregationBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    public int scale;
+
+    private Object store, tally, counties, index, model, elections;
+    private long[][] countyVotes;
+    private int countyCount;
+    private long first, span, cursor, seed;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        Object ids = Vizzard.newIdDictionary();
+        store = Vizzard.newVoteStore(ids);
+        Vizzard.loadStateInfo(SyntheticData.stateInfo(1), store);
+        Vizzard.loadVoteResults(SyntheticData.voteResults(scale), store, true);
+        counties = Vizzard.loadCounties(SyntheticData.counties(scale), ids);
+        tally = Vizzard.tally(store);
+        countyVotes = Vizzard.countyVotes(counties);
+        countyCount = Vizzard.countySize(counties);
+        index = Vizzard.timeIndex(counties, store);
+        first = Vizzard.firstTime(index);
+        span = Math.max(1, Vizzard.lastTime(index) - first);
+        model = Vizzard.monteCarlo(counties, store, first + span / 2);
+        elections = Vizzard.newElectionSet(ids);
+        Vizzard.addElection(elections, "before", counties);
+        Vizzard.addElection(elections, "after", Vizzard.loadCounties(SyntheticData.counties(scale), ids));
+    }
+
+    @Benchmark
+    public Object stateTally() throws Throwable {
+        return Vizzard.tally(store);
+    }
+
+    @Benchmark
+    public long[] popularTotals() throws Throwable {
+        return Vizzard.popularTotals(store);
+    }
+
+    @Benchmark
+    public int[] electoralTotals() throws Throwable {
+        return Vizzard.electoralTotals(store, tally);
+    }
+
+    @Benchmark
+    public Object countyTally() throws Throwable {
+        return Vizzard.tally(countyVotes, countyCount);
+    }
+
+    /**
+     * The tally kernel alone over a synthetic {@code candidates} x {@code rows}
+     * vote matrix: 3,144 rows is the county table, 170,000 a national precinct
+     * table. A class of its own, so the outer scale does not repeat each case;
+     * JMH does not carry annotations into nested classes, hence the copies.
+     */
+    @State(Scope.Benchmark)
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    @Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "--add-modules", "jdk.incubator.vector"})
+    public static class Candidates {
+
+        @Param({"2", "10", "50"})
+        public int candidates;
+
+        @Param({"3144", "170000"})
+        public int rows;
+
+        private long[][] votes;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            votes = SyntheticData.voteMatrix(candidates, rows, 42L);
+        }
+
+        @Benchmark
+        public Object tally() throws Throwable {
+            return Vizzard.tally(votes, rows);
+        }
+
+        /** {@link #tally} on TallyEngine's scalar loop, as BlueJ runs it. */
+        @Benchmark
+        @Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "-Dvizzard.tally.vector=false"})
+        public Object tallyScalar() throws Throwable {
+            return Vizzard.tally(votes, rows);
+        }
+    }
+
+    @Benchmark
+    public Object countyAggregateSequential() throws Throwable {
+        return Vizzard.aggregateSequential(counties);
+    }
+
+    @Benchmark
+    public Object countyAggregateForkJoin() throws Throwable {
+        return Vizzard.aggregateParallel(counties);
+    }
+
+    @Benchmark
+    public Object timeIndexBuild() throws Throwable {
+        return Vizzard.timeIndex(counties, store);
+    }
+
+    @Benchmark
+    public Object asOfQuery() throws Throwable {
+        cursor = (cursor + 7_919) % span;   // walk the night in prime steps
+        return Vizzard.asOf(index, first + cursor);
+    }
+
+    @Benchmark
+    public Object monteCarlo10k() throws Throwable {
+        return Vizzard.simulate(model, 10_000, ++seed);
+    }
+
+    @Benchmark
+    public Object countySwing() throws Throwable {
+        return Vizzard.swing(elections, "before", "after");
+    }
+}
@@ -0,0 +1,32 @@
+package thevizzard.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of benchmarks.jar: the usual JMH command line, always with the
+ * GC profiler attached so every result carries its allocation rate
+ * (gc.alloc.rate.norm = bytes allocated per operation).
+ *
+ * <pre>
+ *   mvn -B package -DskipTests
+ *   java -jar benchmarks/target/benchmarks.jar                       # everything
+ *   java -jar benchmarks/target/benchmarks.jar Loader -p scale=1,10  # a subset
+ * </pre>
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() { }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cli = new CommandLineOptions(args);
+        if (cli.shouldHelp() || cli.shouldList() || cli.shouldListWithParams() || cli.shouldListProfilers()
+                || cli.shouldListResultFormats()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+        new Runner(new OptionsBuilder().parent(cli).addProfiler(GCProfiler.class).build()).run();
+    }
+}
@@ -0,0 +1,80 @@
+package thevizzard.bench;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Each loader on the real files (scale 1) and on synthetic 10x/100x/1000x
+ * copies: county CSV, State-Info CSV, Vote-Results XLSX in streaming and DOM
+ * mode, and the binary snapshot that replaces all three on a warm start.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class LoaderBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    public int scale;
+
+    private File counties, stateInfo, voteResults, snapshot;
+    private long checksum;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        counties = SyntheticData.counties(scale);
+        stateInfo = SyntheticData.stateInfo(scale);
+        voteResults = SyntheticData.voteResults(scale);
+
+        // Snapshot of exactly what a cold start would load
+        Object ids = Vizzard.newIdDictionary();
+        Object store = Vizzard.newVoteStore(ids);
+        Vizzard.loadStateInfo(stateInfo, store);
+        Object data = Vizzard.loadCounties(counties, ids);
+        Vizzard.loadVoteResults(voteResults, store, true);
+        checksum = Vizzard.checksum(stateInfo, voteResults, counties);
+        snapshot = File.createTempFile("vizzard-bench", ".snap");
+        snapshot.deleteOnExit();
+        Vizzard.writeSnapshot(snapshot, checksum, ids, store, data);
+    }
+
+    @Benchmark
+    public Object countiesCsv() throws Throwable {
+        return Vizzard.loadCounties(counties, Vizzard.newIdDictionary());
+    }
+
+    @Benchmark
+    public Object stateInfoCsv() throws Throwable {
+        Object store = Vizzard.newVoteStore(Vizzard.newIdDictionary());
+        Vizzard.loadStateInfo(stateInfo, store);
+        return store;
+    }
+
+    @Benchmark
+    public Object voteResultsXlsxStreaming() throws Throwable {
+        Object store = Vizzard.newVoteStore(Vizzard.newIdDictionary());
+        Vizzard.loadVoteResults(voteResults, store, true);
+        return store;
+    }
+
+    @Benchmark
+    public Object voteResultsXlsxDom() throws Throwable {
+        Object store = Vizzard.newVoteStore(Vizzard.newIdDictionary());
+        Vizzard.loadVoteResults(voteResults, store, false);
+        return store;
+    }
+
+    @Benchmark
+    public long snapshotChecksum() throws Throwable {
+        return Vizzard.checksum(stateInfo, voteResults, counties);
+    }
+
+    @Benchmark
+    public Object snapshotRead() throws Throwable {
+        Object ids = Vizzard.newIdDictionary();
+        return Vizzard.readSnapshot(snapshot, checksum, ids, Vizzard.newVoteStore(ids));
+    }
+}
@@ -0,0 +1,72 @@
+package thevizzard.bench;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.ImageIO;
+import javax.swing.JPanel;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Offscreen TheVizzardMap rendering into a BufferedImage: a plain repaint
+ * over cached layers, a focus change (county dot layer redrawn) and a
+ * resize (both layers redrawn). At scale 100 the national layer is the
+ * density heatmap; add {@code -jvmArgsAppend -Dvizzard.map.render=dots} to
+ * compare against drawing every dot, or {@code -Dvizzard.map.projection=albers}
+ * for the equal-area projection.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RenderBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int scale;
+
+    private JPanel map;
+    private BufferedImage frame;
+    private Graphics2D g;
+    private boolean flip;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        Object counties = Vizzard.loadCounties(SyntheticData.counties(scale), Vizzard.newIdDictionary());
+        BufferedImage base = ImageIO.read(new File(SyntheticData.dataDir(), "us_map.jpg"));
+        map = Vizzard.newMap(counties, base, null);
+        map.setSize(900, 600);
+        frame = new BufferedImage(901, 600, BufferedImage.TYPE_INT_RGB);
+        g = frame.createGraphics();
+        map.paint(g);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        g.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage paintCached() {
+        map.paint(g);
+        return frame;
+    }
+
+    @Benchmark
+    public BufferedImage paintFocusChange() throws Throwable {
+        flip = !flip;
+        Vizzard.setFocusState(map, flip ? "TX" : null);
+        map.paint(g);
+        return frame;
+    }
+
+    @Benchmark
+    public BufferedImage paintResize() {
+        flip = !flip;
+        map.setSize(flip ? 901 : 900, 600);
+        map.paint(g);
+        return frame;
+    }
+}
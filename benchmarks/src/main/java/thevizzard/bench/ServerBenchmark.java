@@ -0,0 +1,79 @@
+package thevizzard.bench;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Load test for the ResultsServer JSON API over localhost: 16 client threads,
+ * each with its own keep-alive HTTP/1.1 connection, hammer one endpoint per
+ * benchmark. The score is requests per second; apart from the first request
+ * per path, every response comes from the pre-serialized cache. The fork
+ * sets TCP_NODELAY, as serve mode does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "-Dsun.net.httpserver.nodelay=true"})
+@Threads(16)
+public class ServerBenchmark {
+
+    private Object server;
+    private String base;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        Object ids = Vizzard.newIdDictionary();
+        Object store = Vizzard.newVoteStore(ids);
+        Vizzard.loadStateInfo(SyntheticData.stateInfo(1), store);
+        Vizzard.loadVoteResults(SyntheticData.voteResults(1), store, true);
+        Object counties = Vizzard.loadCounties(SyntheticData.counties(1), ids);
+        server = Vizzard.newResultsServer(store, counties);
+        base = "http://127.0.0.1:" + Vizzard.startServer(server, 0) + "/api/";
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Throwable {
+        System.out.println("\nServed " + Vizzard.requestCount(server) + " requests");
+        Vizzard.stopServer(server);
+    }
+
+    /** One client, and so one connection, per benchmark thread. */
+    @State(Scope.Thread)
+    public static class Client {
+        final HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        int get(String url) throws IOException, InterruptedException {
+            HttpResponse<byte[]> r = http.send(HttpRequest.newBuilder(URI.create(url)).build(),
+                    HttpResponse.BodyHandlers.ofByteArray());
+            if (r.statusCode() != 200) throw new IOException(url + " -> " + r.statusCode());
+            return r.body().length;
+        }
+    }
+
+    @Benchmark
+    public int national(Client client) throws Exception {
+        return client.get(base + "national");
+    }
+
+    @Benchmark
+    public int stateSummary(Client client) throws Exception {
+        return client.get(base + "states/TX");
+    }
+
+    @Benchmark
+    public int stateCounties(Client client) throws Exception {
+        return client.get(base + "states/TX/counties");
+    }
+
+    @Benchmark
+    public int asOf(Client client) throws Exception {
+        return client.get(base + "asof?time=21:37");
+    }
+}
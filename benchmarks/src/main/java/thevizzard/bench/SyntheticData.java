@@ -0,0 +1,105 @@
+package thevizzard.bench;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+/**
+ * Benchmark inputs: the real files under data/ at scale 1, and synthetic
+ * copies scaled 10x, 100x or 1000x. County and State-Info rows are the real
+ * rows repeated, so field shapes and parse paths match production (1000x
+ * counties is about 3.1 million rows, i.e. precinct scale). Vote-Results
+ * gets scale x 51 generated state rows behind the real header layout.
+ * Generated files are cached in java.io.tmpdir/vizzard-bench.
+ */
+final class SyntheticData {
+
+    private SyntheticData() { }
+
+    /** data/ of the checkout: -Dvizzard.data, else ./data, else ../data. */
+    static File dataDir() {
+        String prop = System.getProperty("vizzard.data");
+        if (prop != null) return new File(prop);
+        File here = new File("data");
+        return here.isDirectory() ? here : new File("../data");
+    }
+
+    static File counties(int scale) throws IOException {
+        return repeatRows(new File(dataDir(), "Voting-Counties.csv"), 1, scale);
+    }
+
+    static File stateInfo(int scale) throws IOException {
+        return repeatRows(new File(dataDir(), "State-Info.csv"), 3, scale);
+    }
+
+    static File voteResults(int scale) throws IOException {
+        File real = new File(dataDir(), "Vote-Results.xlsx");
+        if (scale == 1) return real;
+        File out = target("Vote-Results", scale, ".xlsx");
+        if (out.exists()) return out;
+
+        Random random = new Random(scale);
+        File tmp = new File(out.getPath() + ".tmp");
+        // Shared strings like an Excel-saved file, so both XLSX paths resolve string cells
+        try (SXSSFWorkbook wb = new SXSSFWorkbook(null, 1000, false, true);
+             OutputStream os = new FileOutputStream(tmp)) {
+            Sheet sheet = wb.createSheet("Results");
+            sheet.createRow(0).createCell(0).setCellValue("Vote Results");
+            Row header = sheet.createRow(3);
+            header.createCell(1).setCellValue("state_id");
+            header.createCell(3).setCellValue("Sum of RR Votes");
+            header.createCell(4).setCellValue("Sum of BB Votes");
+            header.createCell(9).setCellValue("Elect Votes");
+            for (int r = 0; r < 51 * scale; r++) {
+                Row row = sheet.createRow(4 + r);
+                row.createCell(1).setCellValue(String.format("S%05d", r));
+                row.createCell(3).setCellValue(100_000 + random.nextInt(5_000_000));
+                row.createCell(4).setCellValue(100_000 + random.nextInt(5_000_000));
+                row.createCell(9).setCellValue(3 + random.nextInt(52));
+            }
+            wb.write(os);
+        }
+        Files.move(tmp.toPath(), out.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        return out;
+    }
+
+    /** Random {@code votes[candidate][row]} matrix with county-sized counts and a few exact ties. */
+    static long[][] voteMatrix(int candidates, int rows, long seed) {
+        SplittableRandom rnd = new SplittableRandom(seed);
+        long[][] votes = new long[candidates][rows];
+        for (int c = 0; c < candidates; c++) {
+            for (int j = 0; j < rows; j++) votes[c][j] = rnd.nextInt(50_000);
+        }
+        for (int j = 0; j < rows; j += 997) votes[candidates - 1][j] = votes[0][j];
+        return votes;
+    }
+
+    /** {@code source} with everything after its first {@code headerLines} lines repeated {@code scale} times. */
+    private static File repeatRows(File source, int headerLines, int scale) throws IOException {
+        if (scale == 1) return source;
+        String name = source.getName();
+        File out = target(name.substring(0, name.lastIndexOf('.')), scale, ".csv");
+        if (out.exists()) return out;
+
+        List<String> lines = Files.readAllLines(source.toPath(), StandardCharsets.UTF_8);
+        File tmp = new File(out.getPath() + ".tmp");
+        try (BufferedWriter w = Files.newBufferedWriter(tmp.toPath(), StandardCharsets.UTF_8)) {
+            for (int i = 0; i < headerLines && i < lines.size(); i++) w.write(lines.get(i) + "\r\n");
+            for (int k = 0; k < scale; k++) {
+                for (int i = headerLines; i < lines.size(); i++) w.write(lines.get(i) + "\r\n");
+            }
+        }
+        Files.move(tmp.toPath(), out.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        return out;
+    }
+
+    private static File target(String base, int scale, String ext) throws IOException {
+        File dir = new File(System.getProperty("java.io.tmpdir"), "vizzard-bench");
+        Files.createDirectories(dir.toPath());
+        return new File(dir, base + "-x" + scale + ext);
+    }
+}
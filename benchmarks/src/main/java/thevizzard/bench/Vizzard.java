@@ -0,0 +1,195 @@
+package thevizzard.bench;
+
+import java.awt.Image;
+import java.io.File;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import javax.swing.JPanel;
+
+/**
+ * Bridge to The Vizzard's classes, which live in the unnamed package and so
+ * cannot be imported from here. Every entry point is resolved once into a
+ * {@code static final} MethodHandle; the JIT treats those as constants and
+ * inlines straight through them, so a benchmark pays nothing for the
+ * indirection. App objects travel as {@code Object}.
+ */
+final class Vizzard {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final Class<?> ID_DICTIONARY = type("IdDictionary");
+    private static final Class<?> VOTE_STORE    = type("VoteStore");
+    private static final Class<?> COUNTY_DATA   = type("CountyData");
+    private static final Class<?> TALLY         = type("TallyEngine$Tally");
+    private static final Class<?> TIME_INDEX    = type("TimeIndex");
+    private static final Class<?> MAP           = type("TheVizzardMap");
+    private static final Class<?> SERVER        = type("ResultsServer");
+    private static final Class<?> MONTE_CARLO   = type("MonteCarlo");
+    private static final Class<?> ELECTION_SET  = type("ElectionSet");
+
+    private static final MethodHandle NEW_IDS        = constructor(ID_DICTIONARY);
+    private static final MethodHandle NEW_STORE      = constructor(VOTE_STORE, ID_DICTIONARY);
+    private static final MethodHandle LOAD_COUNTIES  = staticMethod("CountyData", "load", COUNTY_DATA, File.class, ID_DICTIONARY);
+    private static final MethodHandle LOAD_STATES    = staticMethod("StateInfoCsv", "load", int.class, File.class, VOTE_STORE);
+    private static final MethodHandle LOAD_XLSX      = staticMethod("VoteResultsXlsx", "load", void.class, File.class, VOTE_STORE, boolean.class);
+    private static final MethodHandle STORE_TALLY    = virtual(VOTE_STORE, "tally", TALLY);
+    private static final MethodHandle STORE_POPULAR  = virtual(VOTE_STORE, "popularTotals", long[].class);
+    private static final MethodHandle STORE_EV       = virtual(VOTE_STORE, "electoralTotals", int[].class, TALLY);
+    private static final MethodHandle COUNTY_SIZE    = virtual(COUNTY_DATA, "size", int.class);
+    private static final MethodHandle COUNTY_VOTES   = getter(COUNTY_DATA, "votes", long[][].class);
+    private static final MethodHandle ENGINE_TALLY   = staticMethod("TallyEngine", "tally", TALLY, long[][].class, int.class);
+    private static final MethodHandle AGG_SEQ        = staticMethod("CountyAggregator", "sequential", type("CountyAggregator$Totals"), COUNTY_DATA);
+    private static final MethodHandle AGG_PAR        = staticMethod("CountyAggregator", "parallel", type("CountyAggregator$Totals"), COUNTY_DATA);
+    private static final MethodHandle NEW_INDEX      = constructor(TIME_INDEX, COUNTY_DATA, VOTE_STORE);
+    private static final MethodHandle INDEX_AS_OF    = virtual(TIME_INDEX, "asOf", type("TimeIndex$Snapshot"), long.class);
+    private static final MethodHandle INDEX_FIRST    = virtual(TIME_INDEX, "firstTime", long.class);
+    private static final MethodHandle INDEX_LAST     = virtual(TIME_INDEX, "lastTime", long.class);
+    private static final MethodHandle NEW_MONTE      = constructor(MONTE_CARLO, COUNTY_DATA, VOTE_STORE, long.class);
+    private static final MethodHandle MONTE_RUN      = virtual(MONTE_CARLO, "run", type("MonteCarlo$Result"), long.class, long.class);
+    private static final MethodHandle NEW_ELECTIONS  = constructor(ELECTION_SET, ID_DICTIONARY);
+    private static final MethodHandle ELECTIONS_ADD  = virtual(ELECTION_SET, "add", type("ElectionSet$Election"), String.class, COUNTY_DATA);
+    private static final MethodHandle SWING          = staticMethod("Swing", "compute", type("Swing"), ELECTION_SET, String.class, String.class);
+    private static final MethodHandle SNAP_CHECKSUM  = staticMethod("DataSnapshot", "checksum", long.class, File[].class);
+    private static final MethodHandle SNAP_WRITE     = staticMethod("DataSnapshot", "write", void.class,
+            File.class, long.class, ID_DICTIONARY, VOTE_STORE, COUNTY_DATA);
+    private static final MethodHandle SNAP_READ      = staticMethod("DataSnapshot", "read", COUNTY_DATA,
+            File.class, long.class, ID_DICTIONARY, VOTE_STORE);
+    private static final MethodHandle NEW_MAP        = constructor(MAP, COUNTY_DATA, Image.class, String.class);
+    private static final MethodHandle MAP_FOCUS      = virtual(MAP, "setFocusState", void.class, String.class);
+    private static final MethodHandle NEW_SERVER     = constructor(SERVER, VOTE_STORE, COUNTY_DATA);
+    private static final MethodHandle SERVER_START   = virtual(SERVER, "start", int.class, int.class);
+    private static final MethodHandle SERVER_STOP    = virtual(SERVER, "stop", void.class);
+    private static final MethodHandle SERVER_COUNT   = virtual(SERVER, "requestCount", long.class);
+
+    private Vizzard() { }
+
+    // ----------------------------- LOADERS -----------------------------
+    static Object newIdDictionary() throws Throwable                 { return (Object) NEW_IDS.invokeExact(); }
+    static Object newVoteStore(Object ids) throws Throwable          { return (Object) NEW_STORE.invokeExact(ids); }
+    static Object loadCounties(File f, Object ids) throws Throwable  { return (Object) LOAD_COUNTIES.invokeExact(f, ids); }
+    static int loadStateInfo(File f, Object store) throws Throwable  { return (int) LOAD_STATES.invokeExact(f, store); }
+
+    static void loadVoteResults(File f, Object store, boolean stream) throws Throwable {
+        LOAD_XLSX.invokeExact(f, store, stream);
+    }
+
+    // ----------------------------- AGGREGATIONS -----------------------------
+    static Object tally(Object store) throws Throwable                   { return (Object) STORE_TALLY.invokeExact(store); }
+    static long[] popularTotals(Object store) throws Throwable           { return (long[]) STORE_POPULAR.invokeExact(store); }
+    static int[] electoralTotals(Object store, Object t) throws Throwable { return (int[]) STORE_EV.invokeExact(store, t); }
+    static int countySize(Object counties) throws Throwable              { return (int) COUNTY_SIZE.invokeExact(counties); }
+    static long[][] countyVotes(Object counties) throws Throwable        { return (long[][]) COUNTY_VOTES.invokeExact(counties); }
+    static Object tally(long[][] votes, int n) throws Throwable          { return (Object) ENGINE_TALLY.invokeExact(votes, n); }
+
+    static Object aggregateSequential(Object counties) throws Throwable { return (Object) AGG_SEQ.invokeExact(counties); }
+    static Object aggregateParallel(Object counties) throws Throwable   { return (Object) AGG_PAR.invokeExact(counties); }
+
+    static Object timeIndex(Object counties, Object store) throws Throwable { return (Object) NEW_INDEX.invokeExact(counties, store); }
+    static Object asOf(Object index, long time) throws Throwable          { return (Object) INDEX_AS_OF.invokeExact(index, time); }
+    static long firstTime(Object index) throws Throwable                  { return (long) INDEX_FIRST.invokeExact(index); }
+    static long lastTime(Object index) throws Throwable                   { return (long) INDEX_LAST.invokeExact(index); }
+
+    static Object monteCarlo(Object counties, Object store, long cutoff) throws Throwable {
+        return (Object) NEW_MONTE.invokeExact(counties, store, cutoff);
+    }
+
+    static Object simulate(Object model, long runs, long seed) throws Throwable { return (Object) MONTE_RUN.invokeExact(model, runs, seed); }
+
+    static Object newElectionSet(Object ids) throws Throwable { return (Object) NEW_ELECTIONS.invokeExact(ids); }
+
+    static Object addElection(Object set, String label, Object counties) throws Throwable {
+        return (Object) ELECTIONS_ADD.invokeExact(set, label, counties);
+    }
+
+    static Object swing(Object set, String from, String to) throws Throwable { return (Object) SWING.invokeExact(set, from, to); }
+
+    // ----------------------------- SNAPSHOT -----------------------------
+    static long checksum(File... sources) throws Throwable { return (long) SNAP_CHECKSUM.invokeExact(sources); }
+
+    static void writeSnapshot(File f, long sum, Object ids, Object store, Object counties) throws Throwable {
+        SNAP_WRITE.invokeExact(f, sum, ids, store, counties);
+    }
+
+    static Object readSnapshot(File f, long sum, Object ids, Object store) throws Throwable {
+        return (Object) SNAP_READ.invokeExact(f, sum, ids, store);
+    }
+
+    // ----------------------------- RENDERING -----------------------------
+    static JPanel newMap(Object counties, Image base, String focus) throws Throwable {
+        return (JPanel) (Object) NEW_MAP.invokeExact(counties, base, focus);
+    }
+
+    static void setFocusState(JPanel map, String state) throws Throwable {
+        MAP_FOCUS.invokeExact((Object) map, state);
+    }
+
+    // ----------------------------- SERVER -----------------------------
+    static Object newResultsServer(Object store, Object counties) throws Throwable {
+        return (Object) NEW_SERVER.invokeExact(store, counties);
+    }
+
+    static int startServer(Object server, int port) throws Throwable { return (int) SERVER_START.invokeExact(server, port); }
+    static void stopServer(Object server) throws Throwable          { SERVER_STOP.invokeExact(server); }
+    static long requestCount(Object server) throws Throwable        { return (long) SERVER_COUNT.invokeExact(server); }
+
+    // ----------------------------- LOOKUP -----------------------------
+    private static Class<?> type(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            throw new ExceptionInInitializerError("The Vizzard classes are not on the classpath: " + name);
+        }
+    }
+
+    private static MethodHandles.Lookup in(Class<?> owner) throws IllegalAccessException {
+        return MethodHandles.privateLookupIn(owner, LOOKUP);
+    }
+
+    /** App types (unnamed package) become Object; JDK types and arrays keep their real types. */
+    private static MethodHandle adapt(MethodHandle mh) {
+        MethodType t = mh.type();
+        for (int i = 0; i < t.parameterCount(); i++) {
+            if (isApp(t.parameterType(i))) t = t.changeParameterType(i, Object.class);
+        }
+        if (isApp(t.returnType())) t = t.changeReturnType(Object.class);
+        return mh.asType(t);
+    }
+
+    private static boolean isApp(Class<?> c) {
+        return !c.isPrimitive() && !c.isArray() && c.getPackageName().isEmpty();
+    }
+
+    private static MethodHandle staticMethod(String owner, String name, Class<?> ret, Class<?>... params) {
+        try {
+            Class<?> c = type(owner);
+            return adapt(in(c).findStatic(c, name, MethodType.methodType(ret, params)));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static MethodHandle virtual(Class<?> owner, String name, Class<?> ret, Class<?>... params) {
+        try {
+            return adapt(in(owner).findVirtual(owner, name, MethodType.methodType(ret, params)));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static MethodHandle constructor(Class<?> owner, Class<?>... params) {
+        try {
+            return adapt(in(owner).findConstructor(owner, MethodType.methodType(void.class, params)));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static MethodHandle getter(Class<?> owner, String field, Class<?> type) {
+        try {
+            return adapt(in(owner).findGetter(owner, field, type));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}